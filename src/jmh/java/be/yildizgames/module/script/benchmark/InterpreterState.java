@@ -0,0 +1,66 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.benchmark;
+
+import be.yildizgames.module.script.ScriptInterpreter;
+import be.yildizgames.module.script.ScriptInterpreterProvider;
+import be.yildizgames.module.script.ScriptInterpreterProviders;
+import be.yildizgames.module.script.dummy.NoInterpreterProvider;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Interpreter shared by the benchmarks of a thread.
+ * "none" uses the interpreter doing nothing as a baseline, "discovered" uses the default provider found on the classpath.
+ *
+ * @author Grégory Van den Borre
+ */
+@State(Scope.Thread)
+public class InterpreterState {
+
+    @Param({"none", "discovered"})
+    public String provider;
+
+    public ScriptInterpreter interpreter;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.interpreter = this.getProvider().getInterpreter();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        this.interpreter.close();
+    }
+
+    public ScriptInterpreterProvider getProvider() {
+        return "none".equals(this.provider) ? new NoInterpreterProvider() : ScriptInterpreterProviders.getDefault();
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script;
+
+import java.util.Arrays;
+
+/**
+ * Reusable set of typed arguments and result for a parsed script run.
+ * Primitive values are stored without boxing, so a frame can be allocated once and filled again for every run.
+ * Arguments are bound by position, each provider defines how the slots are exposed to the script.
+ * A frame is not thread safe, each thread must use its own.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class ArgumentFrame {
+
+    /**
+     * Primitive slots, double values are stored as their raw long bits.
+     */
+    private final long[] primitives;
+
+    private final ValueType[] primitiveTypes;
+
+    private final Object[] objects;
+
+    private ValueType resultType = ValueType.VOID;
+
+    private long primitiveResult;
+
+    private Object objectResult;
+
+    /**
+     * Create a new frame.
+     *
+     * @param primitiveSlots Number of primitive arguments.
+     * @param objectSlots    Number of object arguments.
+     */
+    public ArgumentFrame(final int primitiveSlots, final int objectSlots) {
+        super();
+        this.primitives = new long[primitiveSlots];
+        this.primitiveTypes = new ValueType[primitiveSlots];
+        Arrays.fill(this.primitiveTypes, ValueType.VOID);
+        this.objects = new Object[objectSlots];
+    }
+
+    /**
+     * Set an int argument.
+     *
+     * @param slot  Primitive slot.
+     * @param value Argument value.
+     * @return This frame.
+     */
+    public ArgumentFrame setInt(final int slot, final int value) {
+        this.primitives[slot] = value;
+        this.primitiveTypes[slot] = ValueType.INT;
+        return this;
+    }
+
+    /**
+     * Set a long argument.
+     *
+     * @param slot  Primitive slot.
+     * @param value Argument value.
+     * @return This frame.
+     */
+    public ArgumentFrame setLong(final int slot, final long value) {
+        this.primitives[slot] = value;
+        this.primitiveTypes[slot] = ValueType.LONG;
+        return this;
+    }
+
+    /**
+     * Set a double argument, stored as its raw long bits.
+     *
+     * @param slot  Primitive slot.
+     * @param value Argument value.
+     * @return This frame.
+     */
+    public ArgumentFrame setDouble(final int slot, final double value) {
+        this.primitives[slot] = Double.doubleToRawLongBits(value);
+        this.primitiveTypes[slot] = ValueType.DOUBLE;
+        return this;
+    }
+
+    /**
+     * Set an object argument.
+     *
+     * @param slot  Object slot.
+     * @param value Argument value, can be null.
+     * @return This frame.
+     */
+    public ArgumentFrame setObject(final int slot, final Object value) {
+        this.objects[slot] = value;
+        return this;
+    }
+
+    /**
+     * @param slot Primitive slot.
+     * @return The slot value as an int, truncated if a long was set.
+     */
+    public int getInt(final int slot) {
+        return (int) this.primitives[slot];
+    }
+
+    /**
+     * @param slot Primitive slot.
+     * @return The slot value as a long.
+     */
+    public long getLong(final int slot) {
+        return this.primitives[slot];
+    }
+
+    /**
+     * @param slot Primitive slot.
+     * @return The slot value as a double, only meaningful if a double was set.
+     */
+    public double getDouble(final int slot) {
+        return Double.longBitsToDouble(this.primitives[slot]);
+    }
+
+    /**
+     * @param slot Object slot.
+     * @return The object argument, null if not set.
+     */
+    public Object getObject(final int slot) {
+        return this.objects[slot];
+    }
+
+    /**
+     * @param slot Primitive slot.
+     * @return The type of the value last set in the slot, VOID if never set.
+     */
+    public ValueType getType(final int slot) {
+        return this.primitiveTypes[slot];
+    }
+
+    /**
+     * @return The number of primitive arguments.
+     */
+    public int getPrimitiveSlots() {
+        return this.primitives.length;
+    }
+
+    /**
+     * @return The number of object arguments.
+     */
+    public int getObjectSlots() {
+        return this.objects.length;
+    }
+
+    /**
+     * Set by the provider when the script returned nothing.
+     */
+    public void returnVoid() {
+        this.resultType = ValueType.VOID;
+        this.objectResult = null;
+    }
+
+    /**
+     * Set by the provider when the script returned an int.
+     *
+     * @param value Returned value.
+     */
+    public void returnInt(final int value) {
+        this.resultType = ValueType.INT;
+        this.primitiveResult = value;
+        this.objectResult = null;
+    }
+
+    /**
+     * Set by the provider when the script returned a long.
+     *
+     * @param value Returned value.
+     */
+    public void returnLong(final long value) {
+        this.resultType = ValueType.LONG;
+        this.primitiveResult = value;
+        this.objectResult = null;
+    }
+
+    /**
+     * Set by the provider when the script returned a double.
+     *
+     * @param value Returned value.
+     */
+    public void returnDouble(final double value) {
+        this.resultType = ValueType.DOUBLE;
+        this.primitiveResult = Double.doubleToRawLongBits(value);
+        this.objectResult = null;
+    }
+
+    /**
+     * Set by the provider when the script returned an object.
+     *
+     * @param value Returned value, can be null.
+     */
+    public void returnObject(final Object value) {
+        this.resultType = ValueType.OBJECT;
+        this.objectResult = value;
+    }
+
+    /**
+     * @return The type of the value returned by the last run.
+     */
+    public ValueType getResultType() {
+        return this.resultType;
+    }
+
+    /**
+     * @return The int returned by the last run.
+     * @throws IllegalStateException If the last run did not return an int.
+     */
+    public int getIntResult() {
+        this.checkResult(ValueType.INT);
+        return (int) this.primitiveResult;
+    }
+
+    /**
+     * @return The long or int returned by the last run.
+     * @throws IllegalStateException If the last run did not return a long or an int.
+     */
+    public long getLongResult() {
+        if (this.resultType != ValueType.INT) {
+            this.checkResult(ValueType.LONG);
+        }
+        return this.primitiveResult;
+    }
+
+    /**
+     * @return The double returned by the last run.
+     * @throws IllegalStateException If the last run did not return a double.
+     */
+    public double getDoubleResult() {
+        this.checkResult(ValueType.DOUBLE);
+        return Double.longBitsToDouble(this.primitiveResult);
+    }
+
+    /**
+     * @return The object returned by the last run.
+     * @throws IllegalStateException If the last run did not return an object.
+     */
+    public Object getObjectResult() {
+        this.checkResult(ValueType.OBJECT);
+        return this.objectResult;
+    }
+
+    /**
+     * Release the object references held by the frame, the primitive values are kept.
+     */
+    public void clear() {
+        Arrays.fill(this.objects, null);
+        this.returnVoid();
+    }
+
+    private void checkResult(final ValueType expected) {
+        if (this.resultType != expected) {
+            throw new IllegalStateException("Script returned " + this.resultType + ", not " + expected);
+        }
+    }
+}
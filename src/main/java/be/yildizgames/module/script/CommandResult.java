@@ -0,0 +1,66 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script;
+
+/**
+ * Result of a command executed in a batch.
+ *
+ * @param command Executed command.
+ * @param value   Object resulting from the command, null if it failed.
+ * @param error   Exception raised by the command, null if it succeeded.
+ * @author Grégory Van den Borre
+ */
+public record CommandResult(String command, Object value, ScriptException error) {
+
+    /**
+     * Build the result of a successful command.
+     *
+     * @param command Executed command.
+     * @param value   Object resulting from the command.
+     * @return The created result.
+     */
+    public static CommandResult success(final String command, final Object value) {
+        return new CommandResult(command, value, null);
+    }
+
+    /**
+     * Build the result of a failed command.
+     *
+     * @param command Executed command.
+     * @param error   Exception raised by the command.
+     * @return The created result.
+     */
+    public static CommandResult failure(final String command, final ScriptException error) {
+        return new CommandResult(command, null, error);
+    }
+
+    /**
+     * @return True if the command succeeded.
+     */
+    public boolean isSuccess() {
+        return this.error == null;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script;
+
+/**
+ * Command parsed once, that can be executed numerous times without parsing the command string each time.
+ *
+ * @author Grégory Van den Borre
+ */
+@FunctionalInterface
+public interface CompiledCommand {
+
+    /**
+     * Execute the command.
+     *
+     * @return The object resulting from the command, Long for numeric result.
+     * @throws ScriptException If an exception occurs while executing the command.
+     */
+    Object run() throws ScriptException;
+
+    /**
+     * Execute the command under the control of an execution monitor.
+     * This implementation ignores the monitor.
+     *
+     * @param monitor Monitor of the execution budget.
+     * @return The object resulting from the command, Long for numeric result.
+     * @throws ScriptException If an exception occurs while executing the command.
+     */
+    default Object run(final ExecutionMonitor monitor) throws ScriptException {
+        return this.run();
+    }
+}
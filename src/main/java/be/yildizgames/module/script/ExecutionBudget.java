@@ -0,0 +1,66 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Limits applied to a script execution.
+ *
+ * @param timeout  Maximum wall-clock execution time.
+ * @param maxSteps Maximum cost the script can consume, as counted by the provider, Long.MAX_VALUE for no limit.
+ * @author Grégory Van den Borre
+ */
+public record ExecutionBudget(Duration timeout, long maxSteps) {
+
+    public ExecutionBudget {
+        Objects.requireNonNull(timeout);
+        if (maxSteps <= 0) {
+            throw new IllegalArgumentException("Maximum steps must be positive: " + maxSteps);
+        }
+    }
+
+    /**
+     * Create a budget only limited in time.
+     *
+     * @param timeout Maximum wall-clock execution time.
+     * @return The created budget.
+     */
+    public static ExecutionBudget of(final Duration timeout) {
+        return new ExecutionBudget(timeout, Long.MAX_VALUE);
+    }
+
+    /**
+     * Create a copy of this budget with a step limit.
+     *
+     * @param steps Maximum cost the script can consume.
+     * @return The created budget.
+     */
+    public ExecutionBudget withMaxSteps(final long steps) {
+        return new ExecutionBudget(this.timeout, steps);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Track a script execution against its budget.
+ * Providers call checkpoint from their instruction or function hooks, and stop the script as soon as it returns false.
+ * A monitor is only used by the thread running the script, except for the expiration done by the watchdog.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class ExecutionMonitor {
+
+    /**
+     * Monitor without any limit, for executions without budget.
+     */
+    public static final ExecutionMonitor UNLIMITED = new ExecutionMonitor(Long.MAX_VALUE, null);
+
+    static final int RUNNING = 0;
+
+    static final int EXPIRING = 1;
+
+    static final int EXPIRED = 2;
+
+    static final int DONE = 3;
+
+    /**
+     * Execution state, changed by the watchdog when the deadline is reached.
+     */
+    final AtomicInteger state = new AtomicInteger(RUNNING);
+
+    /**
+     * Thread running the script.
+     */
+    final Thread thread;
+
+    private final long maxSteps;
+
+    private long steps;
+
+    private boolean stepsExceeded;
+
+    ExecutionMonitor(final long maxSteps, final Thread thread) {
+        super();
+        this.maxSteps = maxSteps;
+        this.thread = thread;
+    }
+
+    /**
+     * Consume a part of the budget, to call regularly while the script is running.
+     *
+     * @param cost Cost of the work done since the last call, as defined by the provider.
+     * @return True if the script can continue, false if it must stop.
+     */
+    public boolean checkpoint(final long cost) {
+        if (this.maxSteps != Long.MAX_VALUE) {
+            this.steps += cost;
+            if (this.steps > this.maxSteps) {
+                this.stepsExceeded = true;
+                return false;
+            }
+        }
+        return this.state.get() == RUNNING;
+    }
+
+    /**
+     * @return The cost consumed so far, 0 if the steps are not limited.
+     */
+    public long getSteps() {
+        return this.steps;
+    }
+
+    /**
+     * @return True if the wall-clock deadline was reached.
+     */
+    public boolean isExpired() {
+        int s = this.state.get();
+        return s == EXPIRING || s == EXPIRED;
+    }
+
+    /**
+     * @return True if the step limit was exceeded.
+     */
+    public boolean isStepsExceeded() {
+        return this.stepsExceeded;
+    }
+}
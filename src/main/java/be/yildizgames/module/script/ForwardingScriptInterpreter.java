@@ -0,0 +1,163 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script;
+
+import be.yildizgames.module.script.introspection.ClassDescriptor;
+import be.yildizgames.module.script.profile.ProfilingHook;
+
+import java.io.Writer;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Script interpreter forwarding all calls to another interpreter, base class for the decorators.
+ *
+ * @author Grégory Van den Borre
+ */
+public abstract class ForwardingScriptInterpreter extends ScriptInterpreter {
+
+    /**
+     * Wrapped interpreter.
+     */
+    protected final ScriptInterpreter delegate;
+
+    /**
+     * Create a new forwarding interpreter.
+     *
+     * @param delegate Interpreter to decorate.
+     */
+    protected ForwardingScriptInterpreter(final ScriptInterpreter delegate) {
+        super();
+        this.delegate = Objects.requireNonNull(delegate);
+    }
+
+    @Override
+    public ParsedScript runScript(final String file) throws ScriptException {
+        return this.delegate.runScript(file);
+    }
+
+    @Override
+    public Object runCommand(final String command) throws ScriptException {
+        return this.delegate.runCommand(command);
+    }
+
+    @Override
+    public Object runCommand(final String command, final ExecutionMonitor monitor) throws ScriptException {
+        return this.delegate.runCommand(command, monitor);
+    }
+
+    @Override
+    public CompiledCommand compileCommand(final String command) throws ScriptException {
+        return this.delegate.compileCommand(command);
+    }
+
+    @Override
+    public List<CommandResult> runCommands(final List<String> commands, final BatchMode mode) {
+        return this.delegate.runCommands(commands, mode);
+    }
+
+    @Override
+    public ScriptContext createContext() {
+        // Built on this decorator, so the context calls go through the whole decorator chain.
+        return new SharedScriptContext(this);
+    }
+
+    @Override
+    public boolean isGlobalBindingSupported() {
+        return this.delegate.isGlobalBindingSupported();
+    }
+
+    @Override
+    Object getContextLock() {
+        // The contexts of all the decorators of an interpreter must exclude each other.
+        return this.delegate.getContextLock();
+    }
+
+    @Override
+    protected void bindGlobal(final String name, final Object value) {
+        this.delegate.bindGlobal(name, value);
+    }
+
+    @Override
+    public void print(final String toPrint) {
+        this.delegate.print(toPrint);
+    }
+
+    @Override
+    public void setOutput(final Writer output) {
+        this.delegate.setOutput(output);
+    }
+
+    @Override
+    public Writer getOutput() {
+        return this.delegate.getOutput();
+    }
+
+    @Override
+    public Object getClassMethods(final Class<?> classToGet) {
+        return this.delegate.getClassMethods(classToGet);
+    }
+
+    @Override
+    public ClassDescriptor getClassDescriptor(final Class<?> classToGet) {
+        return this.delegate.getClassDescriptor(classToGet);
+    }
+
+    @Override
+    public void setProfilingHook(final ProfilingHook hook) {
+        this.delegate.setProfilingHook(hook);
+    }
+
+    @Override
+    public ProfilingHook getProfilingHook() {
+        return this.delegate.getProfilingHook();
+    }
+
+    @Override
+    public MemoryUsage getMemoryUsage() {
+        return this.delegate.getMemoryUsage();
+    }
+
+    @Override
+    public String getFileHeader() {
+        return this.delegate.getFileHeader();
+    }
+
+    @Override
+    public String getFileExtension() {
+        return this.delegate.getFileExtension();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return this.delegate.isClosed();
+    }
+
+    @Override
+    public void close() throws Exception {
+        this.delegate.close();
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script;
+
+/**
+ * Exception thrown when an interpreter memory usage exceeds the hard limit of its budget.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class MemoryLimitExceededException extends ScriptException {
+
+    /***/
+    private static final long serialVersionUID = 6214937005218273410L;
+
+    /**
+     * Total usage when the limit was detected, in bytes.
+     */
+    private final long usage;
+
+    /**
+     * Exceeded limit, in bytes.
+     */
+    private final long limit;
+
+    /**
+     * Full constructor.
+     *
+     * @param usage Total usage, in bytes.
+     * @param limit Exceeded limit, in bytes.
+     */
+    public MemoryLimitExceededException(final long usage, final long limit) {
+        super("Script memory usage " + usage + " bytes exceeds the limit of " + limit + " bytes.");
+        this.usage = usage;
+        this.limit = limit;
+    }
+
+    /**
+     * @return The total usage when the limit was detected, in bytes.
+     */
+    public long getUsage() {
+        return this.usage;
+    }
+
+    /**
+     * @return The exceeded limit, in bytes.
+     */
+    public long getLimit() {
+        return this.limit;
+    }
+}
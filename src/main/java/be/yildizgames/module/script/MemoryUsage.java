@@ -0,0 +1,56 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script;
+
+/**
+ * Memory retained by an interpreter, as estimated by its provider.
+ *
+ * @param scriptBytes Retained size of the parsed scripts, in bytes.
+ * @param heapBytes   Size of the script heap, the values created by the scripts, in bytes.
+ * @author Grégory Van den Borre
+ */
+public record MemoryUsage(long scriptBytes, long heapBytes) {
+
+    /**
+     * Usage reported by the interpreters not accounting their memory.
+     */
+    public static final MemoryUsage NONE = new MemoryUsage(0, 0);
+
+    /**
+     * @return The total retained size, in bytes.
+     */
+    public long total() {
+        return this.scriptBytes + this.heapBytes;
+    }
+
+    /**
+     * @param other Usage to add.
+     * @return The sum of both usages.
+     */
+    public MemoryUsage plus(final MemoryUsage other) {
+        return new MemoryUsage(this.scriptBytes + other.scriptBytes, this.heapBytes + other.heapBytes);
+    }
+}
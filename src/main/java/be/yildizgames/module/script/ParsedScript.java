@@ -39,4 +39,54 @@ public interface ParsedScript {
      */
     void run();
 
+    /**
+     * Run the parsed script under the control of an execution monitor.
+     * Providers supporting execution budgets override this to call monitor.checkpoint regularly and stop when it returns false,
+     * they are also expected to stop when the running thread is interrupted.
+     * This implementation ignores the monitor, only the thread interruption can then stop the script.
+     *
+     * @param monitor Monitor of the execution budget.
+     */
+    default void run(final ExecutionMonitor monitor) {
+        this.run();
+    }
+
+    /**
+     * Run the parsed script with arguments, the script result is stored in the frame.
+     * Providers override this to bind the frame slots directly to the script, without building and parsing a command.
+     * This implementation ignores the arguments: the script runs without them and the frame result is set to VOID.
+     *
+     * @param frame Arguments of the run, receiving its result.
+     */
+    default void run(final ArgumentFrame frame) {
+        this.run();
+        frame.returnVoid();
+    }
+
+    /**
+     * Run the parsed script for a range of rows, the frame is filled with each row arguments and its result is stored in the output.
+     * Providers can override this with a path amortizing the per run cost over the whole range.
+     * This implementation calls run(frame) for every row.
+     *
+     * @param input  Arguments of the rows.
+     * @param output Receiver of the row results.
+     * @param from   First row, inclusive.
+     * @param to     Last row, exclusive.
+     * @param frame  Frame to use for the runs, sized for the input.
+     */
+    default void runBatch(final BatchInput input, final BatchOutput output, final int from, final int to, final ArgumentFrame frame) {
+        for (int row = from; row < to; row++) {
+            input.load(row, frame);
+            this.run(frame);
+            output.store(row, frame);
+        }
+    }
+
+    /**
+     * @return True if the script can be run by several threads at the same time, false by default.
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
+
 }
@@ -0,0 +1,95 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script;
+
+import java.io.Writer;
+
+/**
+ * Isolated execution environment created from an interpreter, holding its own global variables and output.
+ * Parsed scripts of the interpreter are shared by all its contexts, only the per tenant state is held by the context,
+ * so a context is cheap to create and to close.
+ *
+ * @author Grégory Van den Borre
+ */
+public abstract class ScriptContext implements AutoCloseable {
+
+    protected ScriptContext() {
+        super();
+    }
+
+    /**
+     * Set a global variable, visible only to the scripts run in this context.
+     *
+     * @param name  Variable name.
+     * @param value Variable value, null to remove it.
+     * @throws UnsupportedOperationException If the interpreter cannot expose globals, see ScriptInterpreter.isGlobalBindingSupported.
+     */
+    public abstract void setGlobal(String name, Object value);
+
+    /**
+     * @param name Variable name.
+     * @return The value of the global variable, null if not set.
+     */
+    public abstract Object getGlobal(String name);
+
+    /**
+     * Redirect the output of the scripts run in this context.
+     *
+     * @param output New output.
+     */
+    public abstract void setOutput(Writer output);
+
+    /**
+     * Run a script parsed by the interpreter of this context.
+     *
+     * @param script Script to run.
+     * @throws ScriptException If the context is closed.
+     */
+    public abstract void run(ParsedScript script) throws ScriptException;
+
+    /**
+     * Run a script parsed by the interpreter of this context, with arguments.
+     *
+     * @param script Script to run.
+     * @param frame  Arguments of the run, receiving its result.
+     * @throws ScriptException If the context is closed.
+     */
+    public abstract void run(ParsedScript script, ArgumentFrame frame) throws ScriptException;
+
+    /**
+     * Execute a command in this context.
+     *
+     * @param command Command to execute.
+     * @return The object resulting from the command.
+     * @throws ScriptException If an exception occurs while parsing the command, or if the context is closed.
+     */
+    public abstract Object runCommand(String command) throws ScriptException;
+
+    public abstract boolean isClosed();
+
+    @Override
+    public abstract void close();
+}
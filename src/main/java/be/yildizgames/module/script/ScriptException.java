@@ -30,7 +30,7 @@ package be.yildizgames.module.script;
  *
  * @author Grégory Van den Borre
  */
-public final class ScriptException extends Exception {
+public class ScriptException extends Exception {
 
     /***/
     private static final long serialVersionUID = 4172109017667943645L;
@@ -52,4 +52,15 @@ public final class ScriptException extends Exception {
     public ScriptException(final String cause) {
         super(cause);
     }
+
+    /**
+     * Constructor for the subtypes controlling the stack trace capture.
+     *
+     * @param message            Error message, can be null if the subtype builds it in getMessage.
+     * @param cause              Original exception, can be null.
+     * @param writableStackTrace False to skip the stack trace capture and the suppressed exceptions, making the exception cheap to create.
+     */
+    protected ScriptException(final String message, final Throwable cause, final boolean writableStackTrace) {
+        super(message, cause, writableStackTrace, writableStackTrace);
+    }
 }
@@ -0,0 +1,182 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script;
+
+import java.util.Objects;
+
+/**
+ * Script exception describing an expected failure, as a validation script rejecting its input, with an error code and the position in the script.
+ * It is built without stack trace so it can be thrown thousands of times per second,
+ * the stack trace is captured only when the debug mode is enabled, with setDebug or the system property be.yildizgames.script.debug.
+ * The message is only built when requested.
+ *
+ * @author Grégory Van den Borre
+ */
+public class ScriptFailureException extends ScriptException {
+
+    /**
+     * Value of the file, line and column when unknown.
+     */
+    public static final int UNKNOWN = -1;
+
+    /***/
+    private static final long serialVersionUID = -3046917311624569372L;
+
+    /**
+     * True to capture the stack traces.
+     */
+    private static volatile boolean debug = Boolean.getBoolean("be.yildizgames.script.debug");
+
+    /**
+     * Error code, defined by the provider or the script.
+     */
+    private final String code;
+
+    /**
+     * Error detail, can be null.
+     */
+    private final String detail;
+
+    /**
+     * Script file, null if unknown.
+     */
+    private final String file;
+
+    private final int line;
+
+    private final int column;
+
+    /**
+     * Message built on first request.
+     */
+    private transient String message;
+
+    /**
+     * Create a failure without position.
+     *
+     * @param code   Error code, mandatory.
+     * @param detail Error detail, can be null.
+     */
+    public ScriptFailureException(final String code, final String detail) {
+        this(code, detail, null, UNKNOWN, UNKNOWN);
+    }
+
+    /**
+     * Full constructor.
+     *
+     * @param code   Error code, mandatory.
+     * @param detail Error detail, can be null.
+     * @param file   Script file, null if unknown.
+     * @param line   Line in the script, UNKNOWN if unknown.
+     * @param column Column in the line, UNKNOWN if unknown.
+     */
+    public ScriptFailureException(final String code, final String detail, final String file, final int line, final int column) {
+        super(null, null, debug);
+        this.code = Objects.requireNonNull(code);
+        this.detail = detail;
+        this.file = file;
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * Enable or disable the stack trace capture for the failures created afterward.
+     *
+     * @param enabled True to capture the stack traces.
+     */
+    public static void setDebug(final boolean enabled) {
+        debug = enabled;
+    }
+
+    /**
+     * @return True if the stack traces are captured.
+     */
+    public static boolean isDebug() {
+        return debug;
+    }
+
+    /**
+     * @return The error code.
+     */
+    public final String getCode() {
+        return this.code;
+    }
+
+    /**
+     * @return The error detail, null if none.
+     */
+    public final String getDetail() {
+        return this.detail;
+    }
+
+    /**
+     * @return The script file, null if unknown.
+     */
+    public final String getFile() {
+        return this.file;
+    }
+
+    /**
+     * @return The line in the script, UNKNOWN if unknown.
+     */
+    public final int getLine() {
+        return this.line;
+    }
+
+    /**
+     * @return The column in the line, UNKNOWN if unknown.
+     */
+    public final int getColumn() {
+        return this.column;
+    }
+
+    /**
+     * @return The message, as "code: detail (file:line:column)".
+     */
+    @Override
+    public String getMessage() {
+        String result = this.message;
+        if (result == null) {
+            StringBuilder sb = new StringBuilder(this.code);
+            if (this.detail != null) {
+                sb.append(": ").append(this.detail);
+            }
+            if (this.file != null || this.line != UNKNOWN) {
+                sb.append(" (").append(this.file == null ? "?" : this.file);
+                if (this.line != UNKNOWN) {
+                    sb.append(':').append(this.line);
+                    if (this.column != UNKNOWN) {
+                        sb.append(':').append(this.column);
+                    }
+                }
+                sb.append(')');
+            }
+            result = sb.toString();
+            this.message = result;
+        }
+        return result;
+    }
+}
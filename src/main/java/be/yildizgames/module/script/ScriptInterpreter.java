@@ -25,10 +25,13 @@
 
 package be.yildizgames.module.script;
 
-import be.yildizgames.module.script.dummy.NoInterpreterProvider;
+import be.yildizgames.module.script.introspection.ClassDescriptor;
+import be.yildizgames.module.script.profile.ProfilingHook;
 
 import java.io.Writer;
-import java.util.ServiceLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * Behavior for scripting languages.
@@ -37,9 +40,36 @@ import java.util.ServiceLoader;
  */
 public abstract class ScriptInterpreter implements AutoCloseable{
 
+    /**
+     * Hook receiving the execution events, called by the providers.
+     */
+    private volatile ProfilingHook profilingHook = ProfilingHook.DISABLED;
+
+    /**
+     * Create a new interpreter, registered for the module memory totals unless it is a decorator.
+     */
+    // Registering from here covers every provider, ScriptMemory tolerates an interpreter not fully created yet.
+    /**
+     * Lock serializing the executions of the contexts, private so no other code can hold it.
+     */
+    private final Object contextLock = new Object();
+
+    @SuppressWarnings("this-escape")
+    protected ScriptInterpreter() {
+        super();
+        if (!(this instanceof ForwardingScriptInterpreter)) {
+            ScriptMemory.register(this);
+        }
+    }
+
+    /**
+     * Build an interpreter from the provider with the highest priority found on the module path.
+     * The providers are only discovered once, see ScriptInterpreterProviders.
+     *
+     * @return The created interpreter.
+     */
     public static ScriptInterpreter getEngine() {
-        ServiceLoader<ScriptInterpreterProvider> provider = ServiceLoader.load(ScriptInterpreterProvider.class);
-        return provider.findFirst().orElseGet(NoInterpreterProvider::new).getInterpreter();
+        return ScriptInterpreterProviders.getDefault().getInterpreter();
     }
 
     /**
@@ -60,6 +90,108 @@ public abstract class ScriptInterpreter implements AutoCloseable{
      */
     public abstract Object runCommand(String command) throws ScriptException;
 
+    /**
+     * Execute a command under the control of an execution monitor.
+     * Providers supporting execution budgets override this to call monitor.checkpoint regularly and stop when it returns false.
+     * This implementation ignores the monitor and calls runCommand.
+     *
+     * @param command Command to execute.
+     * @param monitor Monitor of the execution budget.
+     * @return The object resulting from the command, Long for numeric result.
+     * @throws ScriptException If an exception occurs while parsing the command.
+     */
+    public Object runCommand(final String command, final ExecutionMonitor monitor) throws ScriptException {
+        return this.runCommand(command);
+    }
+
+    /**
+     * Parse a command once, to execute it several times.
+     * Providers override this to return the parsed form of the command.
+     * This implementation does not parse anything, the returned command calls runCommand on every execution.
+     *
+     * @param command Command to compile.
+     * @return The compiled command.
+     * @throws ScriptException If an exception occurs while parsing the command.
+     */
+    public CompiledCommand compileCommand(final String command) throws ScriptException {
+        return new CompiledCommand() {
+            @Override
+            public Object run() throws ScriptException {
+                return ScriptInterpreter.this.runCommand(command);
+            }
+
+            @Override
+            public Object run(final ExecutionMonitor monitor) throws ScriptException {
+                return ScriptInterpreter.this.runCommand(command, monitor);
+            }
+        };
+    }
+
+    /**
+     * Execute several commands in a single call.
+     * This implementation executes them one by one with runCommand, providers can override it with a faster path.
+     *
+     * @param commands Commands to execute, in order.
+     * @param mode     Behavior when a command fails.
+     * @return The result of every executed command, in order.
+     */
+    public List<CommandResult> runCommands(final List<String> commands, final BatchMode mode) {
+        List<CommandResult> results = new ArrayList<>(commands.size());
+        for (String command : commands) {
+            try {
+                results.add(CommandResult.success(command, this.runCommand(command)));
+            } catch (ScriptException e) {
+                results.add(CommandResult.failure(command, e));
+                if (mode == BatchMode.STOP_ON_FIRST_ERROR) {
+                    break;
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Create an isolated context sharing the parsed scripts of this interpreter.
+     * This implementation serializes the context executions of the underlying interpreter, binds the context globals with bindGlobal
+     * and the context output before each one, and restores the previous output after, see getOutput.
+     * The globals created by the scripts themselves are not isolated, providers with native isolation override it to run contexts concurrently.
+     *
+     * @return The created context.
+     */
+    public ScriptContext createContext() {
+        return new SharedScriptContext(this);
+    }
+
+    /**
+     * Check if the values set on the contexts can be exposed to the scripts with bindGlobal, the contexts refuse the globals otherwise.
+     * This implementation returns false, providers overriding bindGlobal override it to return true.
+     *
+     * @return True if bindGlobal is implemented.
+     */
+    public boolean isGlobalBindingSupported() {
+        return false;
+    }
+
+    /**
+     * Provide the lock serializing the executions of the contexts, decorators return the one of their delegate.
+     *
+     * @return The lock of this interpreter, never exposed out of the package.
+     */
+    Object getContextLock() {
+        return this.contextLock;
+    }
+
+    /**
+     * Expose a value as a global variable of the scripts, used by the contexts.
+     * This implementation does nothing, providers supporting contexts override it with isGlobalBindingSupported.
+     *
+     * @param name  Variable name.
+     * @param value Variable value, null to remove it.
+     */
+    protected void bindGlobal(final String name, final Object value) {
+        // Does nothing.
+    }
+
     /**
      * Utility function, print a line in console.
      *
@@ -74,13 +206,67 @@ public abstract class ScriptInterpreter implements AutoCloseable{
      */
     public abstract void setOutput(Writer output);
 
+    /**
+     * Provide the output currently used, the contexts restore it after each of their executions.
+     * This implementation returns null, the output is then unknown and the contexts leave a null sink after their executions,
+     * providers should override it.
+     *
+     * @return The current script engine output, null if not tracked.
+     */
+    public Writer getOutput() {
+        return null;
+    }
+
     /**
      * Print all methods of a java class.
+     * This implementation returns the cached class descriptor, its toString lists the method signatures.
      *
      * @param classToGet Class to retrieve methods.
      * @return The object resulting from the command.
      */
-    public abstract Object getClassMethods(Class<?> classToGet);
+    public Object getClassMethods(final Class<?> classToGet) {
+        return this.getClassDescriptor(classToGet);
+    }
+
+    /**
+     * Provide the public methods and fields of a java class, computed once per class and cached.
+     * Providers can use the pre-resolved method handles for their java calls.
+     *
+     * @param classToGet Class to describe.
+     * @return The class descriptor.
+     */
+    public ClassDescriptor getClassDescriptor(final Class<?> classToGet) {
+        return ClassDescriptor.of(classToGet);
+    }
+
+    /**
+     * Set the hook receiving the script function enter and exit events and the sampling points.
+     *
+     * @param hook Hook to use, ProfilingHook.DISABLED to stop profiling.
+     */
+    public void setProfilingHook(final ProfilingHook hook) {
+        this.profilingHook = Objects.requireNonNull(hook);
+    }
+
+    /**
+     * Providers read it once per script run, and call it on every function enter and exit, and at their sampling points.
+     *
+     * @return The hook receiving the execution events, ProfilingHook.DISABLED if none was set.
+     */
+    public ProfilingHook getProfilingHook() {
+        return this.profilingHook;
+    }
+
+    /**
+     * Provide the memory retained by this interpreter, providers accounting their memory override it,
+     * the retained size of the parsed scripts and the size of the script heap are then reported separately.
+     * This implementation reports nothing.
+     *
+     * @return The current memory usage.
+     */
+    public MemoryUsage getMemoryUsage() {
+        return MemoryUsage.NONE;
+    }
 
     /**
      * @return The header to set in a script file.
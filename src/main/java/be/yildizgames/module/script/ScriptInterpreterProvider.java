@@ -25,11 +25,77 @@
 
 package be.yildizgames.module.script;
 
+import be.yildizgames.module.script.memory.BudgetedScriptInterpreter;
+import be.yildizgames.module.script.memory.MemoryBudget;
+
+import java.util.Optional;
+
 /**
+ * Service providing a script interpreter implementation, discovered with the ServiceLoader.
+ *
  * @author Grégory Van den Borre
  */
 public interface ScriptInterpreterProvider {
 
     ScriptInterpreter getInterpreter();
 
+    /**
+     * @return The name used to select this provider, the simple class name by default.
+     */
+    default String getName() {
+        return this.getClass().getSimpleName();
+    }
+
+    /**
+     * @return The priority of this provider, the provider with the highest priority is selected by default.
+     */
+    default int getPriority() {
+        return 0;
+    }
+
+    /**
+     * Provide the extension of the script files handled by this provider.
+     * The default implementation builds an interpreter to retrieve it, providers should override it when this is costly.
+     *
+     * @return The script file extension, without ".".
+     */
+    default String getFileExtension() {
+        try (ScriptInterpreter interpreter = this.getInterpreter()) {
+            return interpreter.getFileExtension();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Build an interpreter enforcing a memory budget.
+     * This implementation decorates a new interpreter with a BudgetedScriptInterpreter,
+     * providers able to limit the script heap at allocation time should override it.
+     * A provider not reporting the memory usage could not enforce anything, so it is refused.
+     *
+     * @param budget Memory limits of the interpreter.
+     * @return The created interpreter.
+     * @throws UnsupportedOperationException If the provider does not report the memory usage, see isMemoryAccounted.
+     */
+    default ScriptInterpreter getInterpreter(final MemoryBudget budget) {
+        if (!this.isMemoryAccounted()) {
+            throw new UnsupportedOperationException("Memory usage not reported, the budget cannot be enforced: " + this.getClass().getName());
+        }
+        return new BudgetedScriptInterpreter(this.getInterpreter(), budget);
+    }
+
+    /**
+     * @return True if the interpreters of this provider report their memory usage, false by default.
+     */
+    default boolean isMemoryAccounted() {
+        return false;
+    }
+
+    /**
+     * @return The serializer to store parsed scripts in a precompiled bundle, empty if the provider does not support it.
+     */
+    default Optional<ScriptSerializer> getSerializer() {
+        return Optional.empty();
+    }
+
 }
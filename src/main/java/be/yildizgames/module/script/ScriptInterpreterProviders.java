@@ -0,0 +1,110 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script;
+
+import be.yildizgames.module.script.dummy.NoInterpreterProvider;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the script interpreter providers available on the module path.
+ * The providers are discovered once, on first use, and sorted by descending priority then by name so the selection is deterministic.
+ * When no provider is found, a provider building interpreters doing nothing is used.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class ScriptInterpreterProviders {
+
+    /**
+     * File extension of each provider, retrieved on demand as it can be costly.
+     */
+    private static final Map<ScriptInterpreterProvider, String> EXTENSIONS = new ConcurrentHashMap<>();
+
+    private ScriptInterpreterProviders() {
+        super();
+    }
+
+    /**
+     * @return The provider with the highest priority.
+     */
+    public static ScriptInterpreterProvider getDefault() {
+        return Holder.PROVIDERS.get(0);
+    }
+
+    /**
+     * @return All the discovered providers, sorted by descending priority.
+     */
+    public static List<ScriptInterpreterProvider> getAll() {
+        return Holder.PROVIDERS;
+    }
+
+    /**
+     * Select a provider by its name.
+     *
+     * @param name Name of the provider.
+     * @return The provider with the highest priority with that name, empty if none.
+     */
+    public static Optional<ScriptInterpreterProvider> findByName(final String name) {
+        return Holder.PROVIDERS.stream()
+                .filter(p -> p.getName().equals(name))
+                .findFirst();
+    }
+
+    /**
+     * Select a provider by the script file extension it handles.
+     *
+     * @param extension File extension, without ".".
+     * @return The provider with the highest priority handling that extension, empty if none.
+     */
+    public static Optional<ScriptInterpreterProvider> findByExtension(final String extension) {
+        return Holder.PROVIDERS.stream()
+                .filter(p -> EXTENSIONS.computeIfAbsent(p, ScriptInterpreterProvider::getFileExtension).equalsIgnoreCase(extension))
+                .findFirst();
+    }
+
+    private static List<ScriptInterpreterProvider> discover() {
+        List<ScriptInterpreterProvider> providers = ServiceLoader.load(ScriptInterpreterProvider.class)
+                .stream()
+                .map(ServiceLoader.Provider::get)
+                .sorted(Comparator.comparingInt(ScriptInterpreterProvider::getPriority).reversed()
+                        .thenComparing(ScriptInterpreterProvider::getName))
+                .toList();
+        return providers.isEmpty() ? List.of(new NoInterpreterProvider()) : providers;
+    }
+
+    /**
+     * Lazy holder, the discovery is only done when a provider is requested for the first time.
+     */
+    private static final class Holder {
+
+        private static final List<ScriptInterpreterProvider> PROVIDERS = discover();
+    }
+}
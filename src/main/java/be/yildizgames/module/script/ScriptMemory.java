@@ -0,0 +1,122 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Memory used by all the live interpreters of the module, for monitoring.
+ * Every interpreter, except the decorators, registers itself on creation and is only weakly referenced,
+ * so an interpreter is counted until it is closed or garbage collected.
+ * The interpreters are tracked by identity, their equals and hashCode are never called.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class ScriptMemory {
+
+    /**
+     * References to the registered interpreters, WeakReference does not override equals, so the set is identity based.
+     */
+    private static final Set<WeakReference<ScriptInterpreter>> INTERPRETERS = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Receives the references of the collected interpreters, to remove them from the set.
+     */
+    private static final ReferenceQueue<ScriptInterpreter> COLLECTED = new ReferenceQueue<>();
+
+    private ScriptMemory() {
+        super();
+    }
+
+    /**
+     * An interpreter failing to report its usage, as one still being created, is not counted.
+     *
+     * @return The sum of the memory usages of the live interpreters.
+     */
+    public static MemoryUsage getTotalUsage() {
+        MemoryUsage total = MemoryUsage.NONE;
+        for (ScriptInterpreter interpreter : liveInterpreters()) {
+            try {
+                total = total.plus(interpreter.getMemoryUsage());
+            } catch (RuntimeException e) {
+                // Not counted.
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @return The number of created interpreters not yet closed or collected.
+     */
+    public static int getLiveInterpreters() {
+        return liveInterpreters().size();
+    }
+
+    static void register(final ScriptInterpreter interpreter) {
+        expungeCollected();
+        INTERPRETERS.add(new WeakReference<>(interpreter, COLLECTED));
+    }
+
+    private static List<ScriptInterpreter> liveInterpreters() {
+        expungeCollected();
+        List<ScriptInterpreter> snapshot = new ArrayList<>();
+        for (WeakReference<ScriptInterpreter> reference : INTERPRETERS) {
+            ScriptInterpreter interpreter = reference.get();
+            if (interpreter != null) {
+                snapshot.add(interpreter);
+            }
+        }
+        snapshot.removeIf(ScriptMemory::isClosed);
+        return snapshot;
+    }
+
+    private static void expungeCollected() {
+        Reference<? extends ScriptInterpreter> reference;
+        while ((reference = COLLECTED.poll()) != null) {
+            INTERPRETERS.remove(reference);
+        }
+    }
+
+    /**
+     * An interpreter still being created can fail to answer, it is not counted.
+     *
+     * @param interpreter Interpreter to check.
+     * @return True if the interpreter is closed or cannot tell.
+     */
+    private static boolean isClosed(final ScriptInterpreter interpreter) {
+        try {
+            return interpreter.isClosed();
+        } catch (RuntimeException e) {
+            return true;
+        }
+    }
+}
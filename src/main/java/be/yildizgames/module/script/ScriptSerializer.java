@@ -0,0 +1,55 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Convert parsed scripts to and from a provider specific compiled form, to store them in a precompiled bundle.
+ *
+ * @author Grégory Van den Borre
+ */
+public interface ScriptSerializer {
+
+    /**
+     * Produce the compiled form of a parsed script.
+     *
+     * @param script Script to serialize, parsed by an interpreter of the same provider.
+     * @return The compiled form.
+     * @throws ScriptException If the script cannot be serialized.
+     */
+    byte[] serialize(ParsedScript script) throws ScriptException;
+
+    /**
+     * Rebuild a parsed script from its compiled form, without running it.
+     *
+     * @param interpreter Interpreter the script will be bound to.
+     * @param payload     Compiled form, read only, positioned at its start.
+     * @return The parsed script.
+     * @throws ScriptException If the payload cannot be read.
+     */
+    ParsedScript deserialize(ScriptInterpreter interpreter, ByteBuffer payload) throws ScriptException;
+}
@@ -0,0 +1,181 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Run scripts under an execution budget.
+ * A single scheduler thread watches the deadlines of all the running scripts, an over-budget script has its thread interrupted
+ * and its monitor checkpoint returns false, the call then fails with a ScriptBudgetExceededException.
+ * Enforcing a deadline costs one scheduled task, cancelled when the script completes in time.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class ScriptWatchdog implements AutoCloseable {
+
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    private final LongAdder runs = new LongAdder();
+
+    private final LongAdder timeouts = new LongAdder();
+
+    private final LongAdder stepLimits = new LongAdder();
+
+    /**
+     * Create a new watchdog with its own scheduler thread.
+     */
+    public ScriptWatchdog() {
+        super();
+        this.scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "script-watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+        this.scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Run a parsed script under a budget.
+     *
+     * @param script Script to run.
+     * @param budget Budget of the execution.
+     * @throws ScriptBudgetExceededException If the script exceeded its budget.
+     */
+    public void run(final ParsedScript script, final ExecutionBudget budget) throws ScriptBudgetExceededException {
+        try {
+            this.execute(monitor -> {
+                script.run(monitor);
+                return null;
+            }, budget);
+        } catch (ScriptBudgetExceededException e) {
+            throw e;
+        } catch (ScriptException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Execute a command under a budget.
+     *
+     * @param interpreter Interpreter to use.
+     * @param command     Command to execute.
+     * @param budget      Budget of the execution.
+     * @return The object resulting from the command.
+     * @throws ScriptException If the command failed, or a ScriptBudgetExceededException if it exceeded its budget.
+     */
+    public Object runCommand(final ScriptInterpreter interpreter, final String command, final ExecutionBudget budget) throws ScriptException {
+        return this.execute(monitor -> interpreter.runCommand(command, monitor), budget);
+    }
+
+    /**
+     * @return The number of executions started.
+     */
+    public long getRuns() {
+        return this.runs.sum();
+    }
+
+    /**
+     * @return The number of executions stopped because their deadline was reached.
+     */
+    public long getTimeouts() {
+        return this.timeouts.sum();
+    }
+
+    /**
+     * @return The number of executions stopped because they exceeded their step limit.
+     */
+    public long getStepLimits() {
+        return this.stepLimits.sum();
+    }
+
+    @Override
+    public void close() {
+        this.scheduler.shutdownNow();
+    }
+
+    private Object execute(final Execution execution, final ExecutionBudget budget) throws ScriptException {
+        this.runs.increment();
+        ExecutionMonitor monitor = new ExecutionMonitor(budget.maxSteps(), Thread.currentThread());
+        ScheduledFuture<?> expiration = this.scheduler.schedule(() -> expire(monitor), budget.timeout().toNanos(), TimeUnit.NANOSECONDS);
+        Object result = null;
+        RuntimeException failure = null;
+        try {
+            result = execution.execute(monitor);
+        } catch (RuntimeException e) {
+            failure = e;
+        } finally {
+            expiration.cancel(false);
+            finish(monitor);
+        }
+        if (monitor.isExpired()) {
+            this.timeouts.increment();
+            throw budgetException("Script execution exceeded its time budget of " + budget.timeout().toMillis() + "ms.", true, failure);
+        }
+        if (monitor.isStepsExceeded()) {
+            this.stepLimits.increment();
+            throw budgetException("Script execution exceeded its step budget of " + budget.maxSteps() + ".", false, failure);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return result;
+    }
+
+    private static ScriptBudgetExceededException budgetException(final String message, final boolean timeout, final RuntimeException cause) {
+        ScriptBudgetExceededException e = new ScriptBudgetExceededException(message, timeout);
+        if (cause != null) {
+            e.initCause(cause);
+        }
+        return e;
+    }
+
+    private static void expire(final ExecutionMonitor monitor) {
+        if (monitor.state.compareAndSet(ExecutionMonitor.RUNNING, ExecutionMonitor.EXPIRING)) {
+            monitor.thread.interrupt();
+            monitor.state.set(ExecutionMonitor.EXPIRED);
+        }
+    }
+
+    private static void finish(final ExecutionMonitor monitor) {
+        if (!monitor.state.compareAndSet(ExecutionMonitor.RUNNING, ExecutionMonitor.DONE)) {
+            while (monitor.state.get() == ExecutionMonitor.EXPIRING) {
+                Thread.onSpinWait();
+            }
+            // Clear the interruption sent by the watchdog, it must not leak to the caller.
+            Thread.interrupted();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Execution {
+
+        Object execute(ExecutionMonitor monitor) throws ScriptException;
+    }
+}
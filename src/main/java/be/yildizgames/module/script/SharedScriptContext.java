@@ -0,0 +1,141 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script;
+
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Context for interpreters without native isolation.
+ * Executions of all the contexts of an interpreter and of its decorators are serialized on a lock private to the interpreter, the context globals and output are bound
+ * to the interpreter before each execution, then the globals are unbound and the previous output restored,
+ * a context without output writes to a null sink.
+ * Only the globals set on the context are isolated, the globals created by the scripts while running stay in the interpreter.
+ *
+ * @author Grégory Van den Borre
+ */
+final class SharedScriptContext extends ScriptContext {
+
+    private final ScriptInterpreter interpreter;
+
+    private final Map<String, Object> globals = new HashMap<>();
+
+    private Writer output;
+
+    private volatile boolean closed;
+
+    SharedScriptContext(final ScriptInterpreter interpreter) {
+        super();
+        this.interpreter = interpreter;
+    }
+
+    @Override
+    public synchronized void setGlobal(final String name, final Object value) {
+        if (!this.interpreter.isGlobalBindingSupported()) {
+            throw new UnsupportedOperationException("The interpreter cannot expose globals to the scripts.");
+        }
+        if (value == null) {
+            this.globals.remove(name);
+        } else {
+            this.globals.put(name, value);
+        }
+    }
+
+    @Override
+    public synchronized Object getGlobal(final String name) {
+        return this.globals.get(name);
+    }
+
+    @Override
+    public synchronized void setOutput(final Writer output) {
+        this.output = output;
+    }
+
+    @Override
+    public void run(final ParsedScript script) throws ScriptException {
+        this.execute(() -> {
+            script.run();
+            return null;
+        });
+    }
+
+    @Override
+    public void run(final ParsedScript script, final ArgumentFrame frame) throws ScriptException {
+        this.execute(() -> {
+            script.run(frame);
+            return null;
+        });
+    }
+
+    @Override
+    public Object runCommand(final String command) throws ScriptException {
+        return this.execute(() -> this.interpreter.runCommand(command));
+    }
+
+    @Override
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    @Override
+    public synchronized void close() {
+        this.closed = true;
+        this.globals.clear();
+        this.output = null;
+    }
+
+    private Object execute(final Execution execution) throws ScriptException {
+        synchronized (this.interpreter.getContextLock()) {
+            synchronized (this) {
+                if (this.closed) {
+                    throw new ScriptException("Script context is closed.");
+                }
+                this.globals.forEach(this.interpreter::bindGlobal);
+            }
+            Writer previous = this.interpreter.getOutput();
+            Writer output;
+            synchronized (this) {
+                output = this.output;
+            }
+            this.interpreter.setOutput(output == null ? Writer.nullWriter() : output);
+            try {
+                return execution.execute();
+            } finally {
+                this.interpreter.setOutput(previous == null ? Writer.nullWriter() : previous);
+                synchronized (this) {
+                    this.globals.keySet().forEach(name -> this.interpreter.bindGlobal(name, null));
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Execution {
+
+        Object execute() throws ScriptException;
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.async;
+
+import be.yildizgames.module.script.ParsedScript;
+import be.yildizgames.module.script.ScriptException;
+import be.yildizgames.module.script.pool.ScriptInterpreterPool;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Execute scripts without blocking the caller, the results are provided as CompletableFuture.
+ * Every call borrows an interpreter from a pool, so calls can run concurrently.
+ * The number of submitted but not yet completed calls is bounded, a submission exceeding it fails immediately instead of queuing up.
+ * Cancelling a future, or reaching its timeout, interrupts the thread running the call, the provider is expected to stop on interruption.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class AsyncScriptExecutor implements AutoCloseable {
+
+    /**
+     * Timeout used for calls without a specific one.
+     */
+    private static final Duration NO_TIMEOUT = Duration.ofNanos(Long.MAX_VALUE);
+
+    private final ScriptInterpreterPool pool;
+
+    private final Executor executor;
+
+    /**
+     * True if the executor was created by this object and must be closed with it.
+     */
+    private final boolean ownedExecutor;
+
+    /**
+     * Permits for the pending calls.
+     */
+    private final Semaphore pending;
+
+    private final int maxPending;
+
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile boolean closed;
+
+    /**
+     * Create a new executor running the calls on virtual threads.
+     *
+     * @param pool       Pool to borrow the interpreters from.
+     * @param maxPending Maximum number of calls submitted and not yet completed.
+     */
+    public AsyncScriptExecutor(final ScriptInterpreterPool pool, final int maxPending) {
+        this(pool, maxPending, Executors.newVirtualThreadPerTaskExecutor(), true);
+    }
+
+    /**
+     * Create a new executor running the calls on the given executor, the executor is not closed with this object.
+     *
+     * @param pool       Pool to borrow the interpreters from.
+     * @param maxPending Maximum number of calls submitted and not yet completed.
+     * @param executor   Executor running the calls.
+     */
+    public AsyncScriptExecutor(final ScriptInterpreterPool pool, final int maxPending, final Executor executor) {
+        this(pool, maxPending, executor, false);
+    }
+
+    private AsyncScriptExecutor(final ScriptInterpreterPool pool, final int maxPending, final Executor executor, final boolean ownedExecutor) {
+        super();
+        if (maxPending <= 0) {
+            throw new IllegalArgumentException("Maximum pending calls must be positive: " + maxPending);
+        }
+        this.pool = Objects.requireNonNull(pool);
+        this.executor = Objects.requireNonNull(executor);
+        this.ownedExecutor = ownedExecutor;
+        this.maxPending = maxPending;
+        this.pending = new Semaphore(maxPending);
+    }
+
+    /**
+     * Parse and run a script file.
+     * The returned script is bound to a pooled interpreter already given back, unless it is thread safe it must not be run again,
+     * submit a call parsing the file instead.
+     *
+     * @param file File to execute.
+     * @return The future parsed script.
+     */
+    public CompletableFuture<ParsedScript> runScript(final String file) {
+        return this.submit(i -> i.runScript(file), NO_TIMEOUT);
+    }
+
+    /**
+     * Parse and run a script file.
+     * The returned script is bound to a pooled interpreter already given back, unless it is thread safe it must not be run again,
+     * submit a call parsing the file instead.
+     *
+     * @param file    File to execute.
+     * @param timeout Maximum execution time, including the time to obtain an interpreter.
+     * @return The future parsed script.
+     */
+    public CompletableFuture<ParsedScript> runScript(final String file, final Duration timeout) {
+        return this.submit(i -> i.runScript(file), timeout);
+    }
+
+    /**
+     * Execute a command.
+     *
+     * @param command Command to execute.
+     * @return The future command result.
+     */
+    public CompletableFuture<Object> runCommand(final String command) {
+        return this.submit(i -> i.runCommand(command), NO_TIMEOUT);
+    }
+
+    /**
+     * Execute a command.
+     *
+     * @param command Command to execute.
+     * @param timeout Maximum execution time, including the time to obtain an interpreter.
+     * @return The future command result.
+     */
+    public CompletableFuture<Object> runCommand(final String command, final Duration timeout) {
+        return this.submit(i -> i.runCommand(command), timeout);
+    }
+
+    /**
+     * Run a parsed script, no interpreter is borrowed as the script is already bound to one.
+     * Only thread safe scripts are accepted, the interpreter owning the script may be used by another call at the same time.
+     *
+     * @param script Script to run.
+     * @return A future completed once the script has run, failed if the script is not thread safe.
+     */
+    public CompletableFuture<Void> run(final ParsedScript script) {
+        return this.run(script, NO_TIMEOUT);
+    }
+
+    /**
+     * Run a parsed script, no interpreter is borrowed as the script is already bound to one.
+     * Only thread safe scripts are accepted, the interpreter owning the script may be used by another call at the same time.
+     *
+     * @param script  Script to run.
+     * @param timeout Maximum execution time.
+     * @return A future completed once the script has run, failed if the script is not thread safe.
+     */
+    public CompletableFuture<Void> run(final ParsedScript script, final Duration timeout) {
+        if (!script.isThreadSafe()) {
+            return CompletableFuture.failedFuture(new ScriptException("Script is not thread safe, submit a call using a pooled interpreter instead."));
+        }
+        return this.execute(() -> {
+            script.run();
+            return null;
+        }, timeout);
+    }
+
+    /**
+     * Submit a call requiring an interpreter.
+     *
+     * @param call Call to execute.
+     * @param <T>  Result type.
+     * @return The future call result.
+     */
+    public <T> CompletableFuture<T> submit(final ScriptCall<T> call) {
+        return this.submit(call, NO_TIMEOUT);
+    }
+
+    /**
+     * Submit a call requiring an interpreter.
+     *
+     * @param call    Call to execute.
+     * @param timeout Maximum execution time, including the time to obtain an interpreter.
+     * @param <T>     Result type.
+     * @return The future call result.
+     */
+    public <T> CompletableFuture<T> submit(final ScriptCall<T> call, final Duration timeout) {
+        return this.execute(() -> {
+            try (ScriptInterpreterPool.Lease lease = this.pool.checkout(timeout)) {
+                return call.call(lease.getInterpreter());
+            }
+        }, timeout);
+    }
+
+    /**
+     * @return The number of calls submitted and not yet completed.
+     */
+    public int getPending() {
+        return this.maxPending - this.pending.availablePermits();
+    }
+
+    /**
+     * @return The number of calls rejected because too many calls were pending.
+     */
+    public long getRejected() {
+        return this.rejected.sum();
+    }
+
+    /**
+     * Stop accepting calls, the executor is shut down if it was created by this object.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        if (this.ownedExecutor) {
+            ((ExecutorService) this.executor).close();
+        }
+    }
+
+    private <T> CompletableFuture<T> execute(final Task<T> task, final Duration timeout) {
+        if (this.closed) {
+            return CompletableFuture.failedFuture(new ScriptException("Executor is closed."));
+        }
+        if (!this.pending.tryAcquire()) {
+            this.rejected.increment();
+            return CompletableFuture.failedFuture(new ScriptException("Too many pending script calls: " + this.maxPending));
+        }
+        InterruptibleFuture<T> future = new InterruptibleFuture<>();
+        try {
+            this.executor.execute(() -> {
+                try {
+                    future.run(task);
+                } finally {
+                    this.pending.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.pending.release();
+            future.completeExceptionally(new ScriptException(e));
+            return future;
+        }
+        if (timeout.compareTo(NO_TIMEOUT) < 0) {
+            future.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        return future;
+    }
+
+    @FunctionalInterface
+    private interface Task<T> {
+
+        T call() throws Exception;
+    }
+
+    /**
+     * Future interrupting the thread running its task when completed from outside, by a cancellation or a timeout.
+     *
+     * @param <T> Result type.
+     */
+    private static final class InterruptibleFuture<T> extends CompletableFuture<T> {
+
+        /**
+         * Thread currently running the task, null if not running.
+         */
+        private Thread runner;
+
+        private void run(final Task<T> task) {
+            synchronized (this) {
+                if (this.isDone()) {
+                    return;
+                }
+                this.runner = Thread.currentThread();
+            }
+            try {
+                this.complete(task.call());
+            } catch (ScriptException | Error e) {
+                // Errors are reported as well, the caller would otherwise wait forever.
+                this.completeExceptionally(e);
+            } catch (Exception e) {
+                this.completeExceptionally(new ScriptException(e));
+            } finally {
+                synchronized (this) {
+                    this.runner = null;
+                }
+                // Do not leak an interruption from a cancellation to the next task of the executor.
+                Thread.interrupted();
+            }
+        }
+
+        @Override
+        public boolean completeExceptionally(final Throwable ex) {
+            boolean completed = super.completeExceptionally(ex);
+            this.interruptRunner();
+            return completed;
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            this.interruptRunner();
+            return cancelled;
+        }
+
+        private synchronized void interruptRunner() {
+            if (this.runner != null && this.runner != Thread.currentThread()) {
+                this.runner.interrupt();
+            }
+        }
+    }
+}
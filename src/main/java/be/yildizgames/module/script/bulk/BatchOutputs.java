@@ -0,0 +1,107 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.bulk;
+
+import be.yildizgames.module.script.BatchOutput;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Batch outputs writing the results in caller owned arrays or buffers.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class BatchOutputs {
+
+    private BatchOutputs() {
+        super();
+    }
+
+    /**
+     * @param results Array receiving the int result of each row.
+     * @return The output.
+     */
+    public static BatchOutput ints(final int[] results) {
+        return (row, frame) -> results[row] = frame.getIntResult();
+    }
+
+    /**
+     * @param results Array receiving the long result of each row.
+     * @return The output.
+     */
+    public static BatchOutput longs(final long[] results) {
+        return (row, frame) -> results[row] = frame.getLongResult();
+    }
+
+    /**
+     * @param results Array receiving the double result of each row.
+     * @return The output.
+     */
+    public static BatchOutput doubles(final double[] results) {
+        return (row, frame) -> results[row] = frame.getDoubleResult();
+    }
+
+    /**
+     * @param results Array receiving the object result of each row.
+     * @return The output.
+     */
+    public static BatchOutput objects(final Object[] results) {
+        return (row, frame) -> results[row] = frame.getObjectResult();
+    }
+
+    /**
+     * Write the primitive results in a buffer of fixed size records, rows returning nothing are skipped.
+     * An object result cannot be written, it fails the batch with an IllegalStateException.
+     *
+     * @param buffer Buffer receiving the results, from index 0.
+     * @param stride Size of a record, in bytes.
+     * @param offset Offset of the result in the record, in bytes.
+     * @return The output.
+     */
+    public static BatchOutput buffer(final ByteBuffer buffer, final int stride, final int offset) {
+        return (row, frame) -> {
+            int index = row * stride + offset;
+            switch (frame.getResultType()) {
+                case INT -> buffer.putInt(index, frame.getIntResult());
+                case LONG -> buffer.putLong(index, frame.getLongResult());
+                case DOUBLE -> buffer.putDouble(index, frame.getDoubleResult());
+                case OBJECT -> throw new IllegalStateException("Object result of row " + row + " cannot be written in a buffer.");
+                default -> {
+                    // Nothing to write.
+                }
+            }
+        };
+    }
+
+    /**
+     * @return An output ignoring the results.
+     */
+    public static BatchOutput discard() {
+        return (row, frame) -> {
+            // Does nothing.
+        };
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.bulk;
+
+import be.yildizgames.module.script.ArgumentFrame;
+import be.yildizgames.module.script.BatchInput;
+import be.yildizgames.module.script.ValueType;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batch input read from a buffer of fixed size records, only primitive slots are supported.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class BufferBatch implements BatchInput {
+
+    private final ByteBuffer buffer;
+
+    private final int stride;
+
+    private final int size;
+
+    private final List<Field> fields = new ArrayList<>();
+
+    /**
+     * Create a batch without fields.
+     *
+     * @param buffer Buffer holding the records, from index 0.
+     * @param stride Size of a record, in bytes.
+     * @param size   Number of records.
+     */
+    public BufferBatch(final ByteBuffer buffer, final int stride, final int size) {
+        super();
+        if (stride <= 0 || size < 0) {
+            throw new IllegalArgumentException("Invalid layout, stride: " + stride + ", size: " + size);
+        }
+        if ((long) stride * size > buffer.capacity()) {
+            throw new IllegalArgumentException("Buffer too small for " + size + " records of " + stride + " bytes.");
+        }
+        this.buffer = buffer;
+        this.stride = stride;
+        this.size = size;
+    }
+
+    /**
+     * Add a field, bound to the next primitive slot.
+     *
+     * @param type   Field type, INT, LONG or DOUBLE.
+     * @param offset Offset of the field in the record, in bytes.
+     * @return This object.
+     * @throws IllegalArgumentException If the type is not supported or the field does not fit in the record.
+     */
+    public BufferBatch field(final ValueType type, final int offset) {
+        if (type != ValueType.INT && type != ValueType.LONG && type != ValueType.DOUBLE) {
+            throw new IllegalArgumentException("Unsupported buffer field type: " + type);
+        }
+        int width = type == ValueType.INT ? Integer.BYTES : Long.BYTES;
+        if (offset < 0 || offset + width > this.stride) {
+            throw new IllegalArgumentException("Field " + type + " at offset " + offset + " does not fit in a record of " + this.stride + " bytes.");
+        }
+        this.fields.add(new Field(type, offset));
+        return this;
+    }
+
+    @Override
+    public int getSize() {
+        return this.size;
+    }
+
+    @Override
+    public int getPrimitiveSlots() {
+        return this.fields.size();
+    }
+
+    @Override
+    public int getObjectSlots() {
+        return 0;
+    }
+
+    @Override
+    public void load(final int row, final ArgumentFrame frame) {
+        int base = row * this.stride;
+        for (int slot = 0; slot < this.fields.size(); slot++) {
+            Field field = this.fields.get(slot);
+            int index = base + field.offset;
+            switch (field.type) {
+                case INT -> frame.setInt(slot, this.buffer.getInt(index));
+                case LONG -> frame.setLong(slot, this.buffer.getLong(index));
+                default -> frame.setDouble(slot, this.buffer.getDouble(index));
+            }
+        }
+    }
+
+    private record Field(ValueType type, int offset) {
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.bulk;
+
+import be.yildizgames.module.script.ArgumentFrame;
+import be.yildizgames.module.script.BatchInput;
+import be.yildizgames.module.script.BatchOutput;
+import be.yildizgames.module.script.ParsedScript;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Run a parsed script over all the rows of a batch.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class BulkScriptRunner {
+
+    private BulkScriptRunner() {
+        super();
+    }
+
+    /**
+     * Run a script for every row of a batch, on the calling thread.
+     *
+     * @param script Script to run.
+     * @param input  Arguments of the rows.
+     * @param output Receiver of the row results.
+     */
+    public static void run(final ParsedScript script, final BatchInput input, final BatchOutput output) {
+        script.runBatch(input, output, 0, input.getSize(), newFrame(input));
+    }
+
+    /**
+     * Run a script for every row of a batch, split in ranges executed in parallel.
+     * If the script is not thread safe, the rows are run on the calling thread.
+     * The output must support concurrent stores to different rows, the outputs from BatchOutputs do.
+     *
+     * @param script    Script to run.
+     * @param input     Arguments of the rows.
+     * @param output    Receiver of the row results.
+     * @param pool      Pool running the ranges.
+     * @param rangeSize Number of rows below which a range is not split anymore.
+     */
+    public static void runParallel(final ParsedScript script, final BatchInput input, final BatchOutput output, final ForkJoinPool pool, final int rangeSize) {
+        if (!script.isThreadSafe() || input.getSize() <= rangeSize) {
+            run(script, input, output);
+            return;
+        }
+        pool.invoke(new RangeTask(script, input, output, 0, input.getSize(), Math.max(1, rangeSize)));
+    }
+
+    private static ArgumentFrame newFrame(final BatchInput input) {
+        return new ArgumentFrame(input.getPrimitiveSlots(), input.getObjectSlots());
+    }
+
+    /**
+     * Run a range of rows, splitting it while it is larger than the range size.
+     */
+    private static final class RangeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient ParsedScript script;
+
+        private final transient BatchInput input;
+
+        private final transient BatchOutput output;
+
+        private final int from;
+
+        private final int to;
+
+        private final int rangeSize;
+
+        private RangeTask(final ParsedScript script, final BatchInput input, final BatchOutput output, final int from, final int to, final int rangeSize) {
+            super();
+            this.script = script;
+            this.input = input;
+            this.output = output;
+            this.from = from;
+            this.to = to;
+            this.rangeSize = rangeSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= this.rangeSize) {
+                this.script.runBatch(this.input, this.output, this.from, this.to, newFrame(this.input));
+                return;
+            }
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(
+                    new RangeTask(this.script, this.input, this.output, this.from, middle, this.rangeSize),
+                    new RangeTask(this.script, this.input, this.output, middle, this.to, this.rangeSize));
+        }
+    }
+}
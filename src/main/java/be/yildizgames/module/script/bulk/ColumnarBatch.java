@@ -0,0 +1,145 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.bulk;
+
+import be.yildizgames.module.script.ArgumentFrame;
+import be.yildizgames.module.script.BatchInput;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batch input made of arrays, one array per slot, the row i of the batch being the element i of every array.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class ColumnarBatch implements BatchInput {
+
+    private final int size;
+
+    private final List<Column> primitives = new ArrayList<>();
+
+    private final List<Column> objects = new ArrayList<>();
+
+    /**
+     * Create an empty batch.
+     *
+     * @param size Number of rows, every column must have at least this number of elements.
+     */
+    public ColumnarBatch(final int size) {
+        super();
+        this.size = size;
+    }
+
+    /**
+     * Add an int column, bound to the next primitive slot.
+     *
+     * @param values Column values.
+     * @return This object.
+     */
+    public ColumnarBatch ints(final int[] values) {
+        this.checkSize(values.length);
+        this.primitives.add(new Column(values, null, null, null));
+        return this;
+    }
+
+    /**
+     * Add a long column, bound to the next primitive slot.
+     *
+     * @param values Column values.
+     * @return This object.
+     */
+    public ColumnarBatch longs(final long[] values) {
+        this.checkSize(values.length);
+        this.primitives.add(new Column(null, values, null, null));
+        return this;
+    }
+
+    /**
+     * Add a double column, bound to the next primitive slot.
+     *
+     * @param values Column values.
+     * @return This object.
+     */
+    public ColumnarBatch doubles(final double[] values) {
+        this.checkSize(values.length);
+        this.primitives.add(new Column(null, null, values, null));
+        return this;
+    }
+
+    /**
+     * Add an object column, bound to the next object slot.
+     *
+     * @param values Column values.
+     * @return This object.
+     */
+    public ColumnarBatch objects(final Object[] values) {
+        this.checkSize(values.length);
+        this.objects.add(new Column(null, null, null, values));
+        return this;
+    }
+
+    @Override
+    public int getSize() {
+        return this.size;
+    }
+
+    @Override
+    public int getPrimitiveSlots() {
+        return this.primitives.size();
+    }
+
+    @Override
+    public int getObjectSlots() {
+        return this.objects.size();
+    }
+
+    @Override
+    public void load(final int row, final ArgumentFrame frame) {
+        for (int slot = 0; slot < this.primitives.size(); slot++) {
+            Column column = this.primitives.get(slot);
+            if (column.ints != null) {
+                frame.setInt(slot, column.ints[row]);
+            } else if (column.longs != null) {
+                frame.setLong(slot, column.longs[row]);
+            } else {
+                frame.setDouble(slot, column.doubles[row]);
+            }
+        }
+        for (int slot = 0; slot < this.objects.size(); slot++) {
+            frame.setObject(slot, this.objects.get(slot).objects[row]);
+        }
+    }
+
+    private void checkSize(final int length) {
+        if (length < this.size) {
+            throw new IllegalArgumentException("Column has " + length + " values, " + this.size + " expected.");
+        }
+    }
+
+    private record Column(int[] ints, long[] longs, double[] doubles, Object[] objects) {
+    }
+}
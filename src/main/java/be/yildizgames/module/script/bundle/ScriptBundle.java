@@ -0,0 +1,230 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.bundle;
+
+import be.yildizgames.module.script.ArgumentFrame;
+import be.yildizgames.module.script.BatchInput;
+import be.yildizgames.module.script.BatchOutput;
+import be.yildizgames.module.script.ExecutionMonitor;
+import be.yildizgames.module.script.ParsedScript;
+import be.yildizgames.module.script.ScriptException;
+import be.yildizgames.module.script.ScriptInterpreter;
+import be.yildizgames.module.script.ScriptInterpreterProvider;
+import be.yildizgames.module.script.ScriptSerializer;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Precompiled script bundle, memory mapped from its file.
+ * Only the index is read when opening the bundle, a script is deserialized the first time it is used.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class ScriptBundle {
+
+    private final MappedByteBuffer buffer;
+
+    private final ScriptSerializer serializer;
+
+    private final ScriptInterpreter interpreter;
+
+    /**
+     * Lazily deserialized scripts, by name.
+     */
+    private final Map<String, LazyScript> scripts;
+
+    private ScriptBundle(final MappedByteBuffer buffer, final ScriptSerializer serializer, final ScriptInterpreter interpreter, final int entries) {
+        super();
+        this.buffer = buffer;
+        this.serializer = serializer;
+        this.interpreter = interpreter;
+        this.scripts = new HashMap<>(entries * 2);
+    }
+
+    /**
+     * Map a bundle file.
+     *
+     * @param file        Bundle file.
+     * @param provider    Provider that produced the bundle.
+     * @param interpreter Interpreter the scripts will be bound to, built by the same provider.
+     * @return The opened bundle.
+     * @throws IOException     If the file cannot be read.
+     * @throws ScriptException If the file is not a valid bundle for this provider.
+     */
+    public static ScriptBundle open(final Path file, final ScriptInterpreterProvider provider, final ScriptInterpreter interpreter) throws IOException, ScriptException {
+        ScriptSerializer serializer = provider.getSerializer()
+                .orElseThrow(() -> new ScriptException("Provider " + provider.getName() + " does not support precompiled bundles."));
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new ScriptException(file + " is too large for a script bundle, the limit is 2GB.");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (buffer.getInt() != ScriptBundleFormat.MAGIC) {
+                throw new ScriptException(file + " is not a script bundle.");
+            }
+            short version = buffer.getShort();
+            if (version != ScriptBundleFormat.VERSION) {
+                throw new ScriptException("Unsupported script bundle version " + version + " in " + file);
+            }
+            String bundleProvider = ScriptBundleFormat.getString(buffer);
+            if (!bundleProvider.equals(provider.getName())) {
+                throw new ScriptException(file + " was built by provider " + bundleProvider + ", not " + provider.getName());
+            }
+            int count = buffer.getInt();
+            if (count < 0) {
+                throw new ScriptException("Invalid entry count in " + file);
+            }
+            ScriptBundle bundle = new ScriptBundle(buffer, serializer, interpreter, count);
+            for (int i = 0; i < count; i++) {
+                String name = ScriptBundleFormat.getString(buffer);
+                long offset = buffer.getLong();
+                int length = buffer.getInt();
+                if (offset < 0 || length < 0 || offset + length > buffer.capacity()) {
+                    throw new ScriptException("Invalid entry " + name + " in " + file);
+                }
+                bundle.scripts.put(name, bundle.new LazyScript(name, (int) offset, length));
+            }
+            return bundle;
+        } catch (BufferUnderflowException e) {
+            throw new ScriptException("Truncated script bundle " + file);
+        }
+    }
+
+    /**
+     * Retrieve a script, it is deserialized on its first run.
+     *
+     * @param name Script name.
+     * @return The script, empty if the bundle does not contain it.
+     */
+    public Optional<ParsedScript> get(final String name) {
+        return Optional.ofNullable(this.scripts.get(name));
+    }
+
+    /**
+     * Retrieve and deserialize a script immediately, to report a corrupted payload as soon as possible.
+     *
+     * @param name Script name.
+     * @return The deserialized script.
+     * @throws ScriptException If the bundle does not contain the script, or if it cannot be deserialized.
+     */
+    public ParsedScript load(final String name) throws ScriptException {
+        LazyScript script = this.scripts.get(name);
+        if (script == null) {
+            throw new ScriptException("No script " + name + " in bundle.");
+        }
+        return script.materialize();
+    }
+
+    /**
+     * @return The names of the scripts in this bundle.
+     */
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(this.scripts.keySet());
+    }
+
+    /**
+     * Script deserialized on first use.
+     */
+    private final class LazyScript implements ParsedScript {
+
+        private final String name;
+
+        private final int offset;
+
+        private final int length;
+
+        private volatile ParsedScript script;
+
+        private LazyScript(final String name, final int offset, final int length) {
+            super();
+            this.name = name;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public void run() {
+            this.materializeUnchecked().run();
+        }
+
+        @Override
+        public void run(final ExecutionMonitor monitor) {
+            this.materializeUnchecked().run(monitor);
+        }
+
+        @Override
+        public void run(final ArgumentFrame frame) {
+            this.materializeUnchecked().run(frame);
+        }
+
+        @Override
+        public void runBatch(final BatchInput input, final BatchOutput output, final int from, final int to, final ArgumentFrame frame) {
+            this.materializeUnchecked().runBatch(input, output, from, to, frame);
+        }
+
+        @Override
+        public boolean isThreadSafe() {
+            return this.materializeUnchecked().isThreadSafe();
+        }
+
+        private ParsedScript materializeUnchecked() {
+            try {
+                return this.materialize();
+            } catch (ScriptException e) {
+                throw new IllegalStateException("Cannot load script " + this.name + " from bundle.", e);
+            }
+        }
+
+        private ParsedScript materialize() throws ScriptException {
+            ParsedScript result = this.script;
+            if (result == null) {
+                synchronized (this) {
+                    result = this.script;
+                    if (result == null) {
+                        ByteBuffer payload = ScriptBundle.this.buffer.slice(this.offset, this.length).asReadOnlyBuffer();
+                        result = ScriptBundle.this.serializer.deserialize(ScriptBundle.this.interpreter, payload);
+                        this.script = result;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
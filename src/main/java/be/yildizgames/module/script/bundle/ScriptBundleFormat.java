@@ -0,0 +1,74 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.bundle;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Layout of a precompiled script bundle, all values are big endian:
+ * <ul>
+ * <li>magic number "YSB1", int</li>
+ * <li>format version, short</li>
+ * <li>provider name, string</li>
+ * <li>entry count, int</li>
+ * <li>for each entry: script name as string, payload offset from the file start as long, payload length as int</li>
+ * <li>payloads</li>
+ * </ul>
+ * A string is stored as its UTF-8 length in a short, followed by its UTF-8 bytes.
+ *
+ * @author Grégory Van den Borre
+ */
+final class ScriptBundleFormat {
+
+    static final int MAGIC = 0x59534231;
+
+    static final short VERSION = 1;
+
+    private ScriptBundleFormat() {
+        super();
+    }
+
+    static byte[] encode(final String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("String too long for a bundle: " + value);
+        }
+        return bytes;
+    }
+
+    static void putString(final ByteBuffer buffer, final byte[] value) {
+        buffer.putShort((short) value.length);
+        buffer.put(value);
+    }
+
+    static String getString(final ByteBuffer buffer) {
+        // Unsigned, a corrupt length must fail as a truncated buffer, not as a negative array size.
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.bundle;
+
+import be.yildizgames.module.script.ParsedScript;
+import be.yildizgames.module.script.ScriptException;
+import be.yildizgames.module.script.ScriptInterpreterProvider;
+import be.yildizgames.module.script.ScriptSerializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Build a precompiled script bundle file, from scripts parsed by a provider supporting serialization.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class ScriptBundleWriter {
+
+    private final String provider;
+
+    private final ScriptSerializer serializer;
+
+    /**
+     * Compiled payload of each script, by name.
+     */
+    private final Map<String, byte[]> payloads = new LinkedHashMap<>();
+
+    /**
+     * Create a new writer.
+     *
+     * @param provider Provider of the interpreter parsing the scripts.
+     * @throws ScriptException If the provider does not support serialization.
+     */
+    public ScriptBundleWriter(final ScriptInterpreterProvider provider) throws ScriptException {
+        super();
+        this.provider = provider.getName();
+        this.serializer = provider.getSerializer()
+                .orElseThrow(() -> new ScriptException("Provider " + provider.getName() + " does not support precompiled bundles."));
+    }
+
+    /**
+     * Add a script to the bundle.
+     *
+     * @param name   Name to retrieve the script from the bundle, usually its file.
+     * @param script Parsed script, from an interpreter of the writer provider.
+     * @throws ScriptException If the script cannot be serialized.
+     */
+    public void add(final String name, final ParsedScript script) throws ScriptException {
+        this.payloads.put(name, this.serializer.serialize(script));
+    }
+
+    /**
+     * Write the bundle file.
+     *
+     * @param file File to write, replaced if it exists.
+     * @throws IOException If the file cannot be written.
+     */
+    public void write(final Path file) throws IOException {
+        byte[] providerName = ScriptBundleFormat.encode(this.provider);
+        Map<byte[], byte[]> entries = new LinkedHashMap<>();
+        int headerSize = Integer.BYTES + Short.BYTES + Short.BYTES + providerName.length + Integer.BYTES;
+        for (Map.Entry<String, byte[]> e : this.payloads.entrySet()) {
+            byte[] name = ScriptBundleFormat.encode(e.getKey());
+            entries.put(name, e.getValue());
+            headerSize += Short.BYTES + name.length + Long.BYTES + Integer.BYTES;
+        }
+        ByteBuffer header = ByteBuffer.allocate(headerSize);
+        header.putInt(ScriptBundleFormat.MAGIC);
+        header.putShort(ScriptBundleFormat.VERSION);
+        ScriptBundleFormat.putString(header, providerName);
+        header.putInt(entries.size());
+        long offset = headerSize;
+        for (Map.Entry<byte[], byte[]> e : entries.entrySet()) {
+            ScriptBundleFormat.putString(header, e.getKey());
+            header.putLong(offset);
+            header.putInt(e.getValue().length);
+            offset += e.getValue().length;
+        }
+        header.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header);
+            for (byte[] payload : entries.values()) {
+                writeFully(channel, ByteBuffer.wrap(payload));
+            }
+        }
+    }
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.cache;
+
+import be.yildizgames.module.script.CompiledCommand;
+import be.yildizgames.module.script.ExecutionMonitor;
+import be.yildizgames.module.script.ForwardingScriptInterpreter;
+import be.yildizgames.module.script.ScriptException;
+import be.yildizgames.module.script.ScriptInterpreter;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Script interpreter decorator keeping the compiled form of the most frequent commands, so a repeated command is only parsed once.
+ * The cache is bounded by a number of entries and uses a TinyLFU admission: when it is full, a newly compiled command only replaces the least recently used
+ * entry if it was requested more often, so a burst of single use commands does not evict the popular ones.
+ * Commands with side effects on parse must not be cached, the bypass predicate sends them directly to the interpreter.
+ *
+ * @author Grégory Van den Borre
+ */
+public class CachedCommandInterpreter extends ForwardingScriptInterpreter {
+
+    /**
+     * Maximum number of cached commands.
+     */
+    private final int maximumSize;
+
+    /**
+     * Commands to send to the interpreter without caching them.
+     */
+    private final Predicate<String> bypass;
+
+    /**
+     * Cached compiled commands, in access order.
+     */
+    private final LinkedHashMap<String, CompiledCommand> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Access frequency of the requested commands, cached or not.
+     */
+    private final FrequencySketch sketch;
+
+    private long hits;
+
+    private long misses;
+
+    private long bypasses;
+
+    private long rejections;
+
+    private long evictions;
+
+    /**
+     * Create a new cache, all commands are cached.
+     *
+     * @param delegate    Interpreter to decorate.
+     * @param maximumSize Maximum number of cached commands, at least 1.
+     */
+    public CachedCommandInterpreter(final ScriptInterpreter delegate, final int maximumSize) {
+        this(delegate, maximumSize, c -> false);
+    }
+
+    /**
+     * Create a new cache.
+     *
+     * @param delegate    Interpreter to decorate.
+     * @param maximumSize Maximum number of cached commands, at least 1.
+     * @param bypass      Predicate returning true for the commands to run without cache, as those with side effects on parse.
+     */
+    public CachedCommandInterpreter(final ScriptInterpreter delegate, final int maximumSize, final Predicate<String> bypass) {
+        super(delegate);
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be at least 1: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.bypass = Objects.requireNonNull(bypass);
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    @Override
+    public Object runCommand(final String command) throws ScriptException {
+        CompiledCommand compiled = this.lookup(command);
+        return compiled == null ? this.delegate.runCommand(command) : compiled.run();
+    }
+
+    @Override
+    public Object runCommand(final String command, final ExecutionMonitor monitor) throws ScriptException {
+        CompiledCommand compiled = this.lookup(command);
+        return compiled == null ? this.delegate.runCommand(command, monitor) : compiled.run(monitor);
+    }
+
+    @Override
+    public CompiledCommand compileCommand(final String command) throws ScriptException {
+        CompiledCommand compiled = this.lookup(command);
+        return compiled == null ? this.delegate.compileCommand(command) : compiled;
+    }
+
+    /**
+     * Remove all the commands from the cache, to call when a global definition used by the commands changed.
+     */
+    public final synchronized void invalidateAll() {
+        this.entries.clear();
+    }
+
+    /**
+     * @return A snapshot of the cache counters.
+     */
+    public final synchronized CommandCacheStatistics getStatistics() {
+        return new CommandCacheStatistics(this.hits, this.misses, this.bypasses, this.rejections, this.evictions, this.entries.size());
+    }
+
+    @Override
+    public void close() throws Exception {
+        this.invalidateAll();
+        super.close();
+    }
+
+    /**
+     * Retrieve the compiled command, compiling it on a miss.
+     *
+     * @param command Command to find.
+     * @return The compiled command, null if the command bypasses the cache.
+     * @throws ScriptException If an exception occurs while compiling the command.
+     */
+    private CompiledCommand lookup(final String command) throws ScriptException {
+        if (this.bypass.test(command)) {
+            synchronized (this) {
+                this.bypasses++;
+            }
+            return null;
+        }
+        synchronized (this) {
+            this.sketch.increment(command);
+            CompiledCommand compiled = this.entries.get(command);
+            if (compiled != null) {
+                this.hits++;
+                return compiled;
+            }
+            this.misses++;
+        }
+        CompiledCommand compiled = this.delegate.compileCommand(command);
+        this.admit(command, compiled);
+        return compiled;
+    }
+
+    private synchronized void admit(final String command, final CompiledCommand compiled) {
+        if (this.entries.containsKey(command)) {
+            return;
+        }
+        if (this.entries.size() < this.maximumSize) {
+            this.entries.put(command, compiled);
+            return;
+        }
+        Iterator<Map.Entry<String, CompiledCommand>> iterator = this.entries.entrySet().iterator();
+        if (!iterator.hasNext()) {
+            this.rejections++;
+            return;
+        }
+        String victim = iterator.next().getKey();
+        if (this.sketch.frequency(command) > this.sketch.frequency(victim)) {
+            iterator.remove();
+            this.evictions++;
+            this.entries.put(command, compiled);
+        } else {
+            this.rejections++;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.cache;
+
+import be.yildizgames.module.script.ForwardingScriptInterpreter;
+import be.yildizgames.module.script.ParsedScript;
+import be.yildizgames.module.script.ScriptException;
+import be.yildizgames.module.script.ScriptInterpreter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Script interpreter decorator keeping the parsed scripts in memory, so a file is only parsed again when its content changed.
+ * Entries are keyed by file path and content hash, the file modification time and size are checked on every call to detect edited scripts.
+ * The cache is bounded by a total weight, the weight of an entry being the size of the script file in bytes, the least recently used entries are evicted first.
+ * A cache hit still runs the script, as the delegate runScript would have done, after releasing the file lock so the runs of a cached file are not serialized.
+ * The file is hashed again once parsed, a script edited while being parsed is not cached as its content is unknown.
+ *
+ * @author Grégory Van den Borre
+ */
+public class CachedScriptInterpreter extends ForwardingScriptInterpreter {
+
+    /**
+     * Maximum total weight of the cached entries.
+     */
+    private final long maximumWeight;
+
+    /**
+     * Cached entries, in access order.
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Lock per file, so a file missing from the cache is parsed by a single caller, removed with the cache entry.
+     */
+    private final ConcurrentHashMap<String, Object> fileLocks = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Current total weight of the cached entries.
+     */
+    private long weight;
+
+    /**
+     * Create a new cache.
+     *
+     * @param delegate      Interpreter to decorate.
+     * @param maximumWeight Maximum total size of the cached script files, in bytes.
+     */
+    public CachedScriptInterpreter(final ScriptInterpreter delegate, final long maximumWeight) {
+        super(delegate);
+        if (maximumWeight < 0) {
+            throw new IllegalArgumentException("Maximum weight cannot be negative: " + maximumWeight);
+        }
+        this.maximumWeight = maximumWeight;
+    }
+
+    @Override
+    public ParsedScript runScript(final String file) throws ScriptException {
+        BasicFileAttributes attributes = readAttributes(file);
+        if (attributes == null || !attributes.isRegularFile()) {
+            this.misses.increment();
+            return this.delegate.runScript(file);
+        }
+        Object lock = this.fileLocks.computeIfAbsent(file, f -> new Object());
+        ParsedScript cached;
+        ParsedScript parsed = null;
+        try {
+            synchronized (lock) {
+                cached = this.lookup(file, attributes);
+                if (cached == null) {
+                    parsed = this.parse(file, attributes);
+                }
+            }
+        } finally {
+            this.releaseLock(file, lock);
+        }
+        if (cached == null) {
+            return parsed;
+        }
+        cached.run();
+        return cached;
+    }
+
+    /**
+     * Retrieve the script from the cache, called with the file lock held, the script is run by the caller once the lock is released.
+     *
+     * @param file       Script file.
+     * @param attributes File attributes read before the call.
+     * @return The cached script, null if the file must be parsed.
+     * @throws ScriptException If the file cannot be read.
+     */
+    private ParsedScript lookup(final String file, final BasicFileAttributes attributes) throws ScriptException {
+        long modified = attributes.lastModifiedTime().toMillis();
+        long size = attributes.size();
+        Entry entry = this.get(file);
+        if (entry != null && entry.modified == modified && entry.size == size) {
+            this.hits.increment();
+            return entry.script;
+        }
+        if (entry != null && Arrays.equals(entry.hash, hash(file))) {
+            this.hits.increment();
+            this.put(file, new Entry(entry.script, entry.hash, modified, size));
+            return entry.script;
+        }
+        return null;
+    }
+
+    /**
+     * Parse and cache the file, called with the file lock held so a file is only parsed once by concurrent callers.
+     * The delegate runs the script while parsing it, so this first run is still done under the lock.
+     *
+     * @param file       Script file.
+     * @param attributes File attributes read before the call.
+     * @return The parsed script, run.
+     * @throws ScriptException If the file cannot be read or parsed.
+     */
+    private ParsedScript parse(final String file, final BasicFileAttributes attributes) throws ScriptException {
+        this.misses.increment();
+        byte[] hash = hash(file);
+        ParsedScript script = this.delegate.runScript(file);
+        if (Arrays.equals(hash, hash(file))) {
+            this.put(file, new Entry(script, hash, attributes.lastModifiedTime().toMillis(), attributes.size()));
+        } else {
+            this.invalidate(file);
+        }
+        return script;
+    }
+
+    /**
+     * Drop the lock of a file not cached, so the locks do not outlive their entries.
+     * A caller still holding a dropped lock can parse the file at the same time as a new caller, the script is then only parsed twice.
+     *
+     * @param file Script file.
+     * @param lock Lock used for the file.
+     */
+    private synchronized void releaseLock(final String file, final Object lock) {
+        if (!this.entries.containsKey(file)) {
+            this.fileLocks.remove(file, lock);
+        }
+    }
+
+    /**
+     * Remove a script from the cache, it will be parsed again on next call.
+     *
+     * @param file Script file to remove.
+     */
+    public final synchronized void invalidate(final String file) {
+        Entry removed = this.entries.remove(file);
+        this.fileLocks.remove(file);
+        if (removed != null) {
+            this.weight -= removed.size;
+        }
+    }
+
+    /**
+     * Remove all the scripts from the cache.
+     */
+    public final synchronized void invalidateAll() {
+        this.entries.clear();
+        this.fileLocks.clear();
+        this.weight = 0;
+    }
+
+    /**
+     * Evict the least recently used entries until the total weight is lower or equal to the given value.
+     *
+     * @param targetWeight Weight to reach.
+     */
+    public final synchronized void trimTo(final long targetWeight) {
+        Iterator<Map.Entry<String, Entry>> iterator = this.entries.entrySet().iterator();
+        while (this.weight > targetWeight && iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            this.weight -= eldest.getValue().size;
+            this.fileLocks.remove(eldest.getKey());
+            iterator.remove();
+            this.evictions.increment();
+        }
+    }
+
+    /**
+     * @return A snapshot of the cache counters.
+     */
+    public final synchronized ScriptCacheStatistics getStatistics() {
+        return new ScriptCacheStatistics(this.hits.sum(), this.misses.sum(), this.evictions.sum(), this.entries.size(), this.weight);
+    }
+
+    @Override
+    public void close() throws Exception {
+        this.invalidateAll();
+        super.close();
+    }
+
+    private synchronized Entry get(final String file) {
+        return this.entries.get(file);
+    }
+
+    private synchronized void put(final String file, final Entry entry) {
+        Entry previous = this.entries.put(file, entry);
+        if (previous != null) {
+            this.weight -= previous.size;
+        }
+        this.weight += entry.size;
+        this.trimTo(this.maximumWeight);
+    }
+
+    private static BasicFileAttributes readAttributes(final String file) {
+        try {
+            return Files.readAttributes(Path.of(file), BasicFileAttributes.class);
+        } catch (IOException | InvalidPathException e) {
+            return null;
+        }
+    }
+
+    private static byte[] hash(final String file) throws ScriptException {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(Path.of(file)));
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new ScriptException(e);
+        }
+    }
+
+    /**
+     * Cached parsed script with the file state it was parsed from.
+     */
+    private static final class Entry {
+
+        private final ParsedScript script;
+
+        private final byte[] hash;
+
+        private final long modified;
+
+        private final long size;
+
+        private Entry(final ParsedScript script, final byte[] hash, final long modified, final long size) {
+            super();
+            this.script = script;
+            this.hash = hash;
+            this.modified = modified;
+            this.size = size;
+        }
+    }
+}
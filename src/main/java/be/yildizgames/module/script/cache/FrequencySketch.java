@@ -0,0 +1,139 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.cache;
+
+/**
+ * Count-min sketch estimating the access frequency of keys, used for the TinyLFU admission.
+ * The sketch has 4 rows of saturating counters from 0 to 15, a key uses one counter per row, chosen by double hashing,
+ * and its frequency is the lowest of them. All counters are halved once the number of increments reaches the sample size, so old popularity fades.
+ * Not thread safe.
+ *
+ * @author Grégory Van den Borre
+ */
+final class FrequencySketch {
+
+    private static final int DEPTH = 4;
+
+    private static final int MAXIMUM_COUNT = 15;
+
+    /**
+     * Counters, row after row.
+     */
+    private final byte[] counters;
+
+    /**
+     * Number of counters per row minus one, the width being a power of two.
+     */
+    private final int mask;
+
+    private final int sampleSize;
+
+    /**
+     * Number of increments since the last halving.
+     */
+    private int size;
+
+    /**
+     * Create a new sketch.
+     *
+     * @param maximumSize Maximum number of entries of the cache using the sketch.
+     */
+    FrequencySketch(final int maximumSize) {
+        super();
+        int width = Math.max(Integer.highestOneBit(Math.max(maximumSize, 1) - 1) << 1, 16);
+        this.counters = new byte[DEPTH * width];
+        this.mask = width - 1;
+        this.sampleSize = 10 * width;
+    }
+
+    /**
+     * Estimate the frequency of a key.
+     *
+     * @param key Key to check.
+     * @return The estimated number of accesses, from 0 to 15.
+     */
+    int frequency(final Object key) {
+        int hash = mix(key.hashCode());
+        int step = Integer.rotateLeft(hash, 16) | 1;
+        int frequency = MAXIMUM_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            frequency = Math.min(frequency, this.counters[this.indexOf(hash, step, row)]);
+        }
+        return frequency;
+    }
+
+    /**
+     * Record an access to a key.
+     *
+     * @param key Accessed key.
+     */
+    void increment(final Object key) {
+        int hash = mix(key.hashCode());
+        int step = Integer.rotateLeft(hash, 16) | 1;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = this.indexOf(hash, step, row);
+            if (this.counters[index] < MAXIMUM_COUNT) {
+                this.counters[index]++;
+            }
+        }
+        if (++this.size >= this.sampleSize) {
+            this.halve();
+        }
+    }
+
+    private void halve() {
+        for (int i = 0; i < this.counters.length; i++) {
+            this.counters[i] >>= 1;
+        }
+        this.size >>>= 1;
+    }
+
+    /**
+     * Find the counter of a key in a row, the rows use the hash moved by a different number of steps.
+     *
+     * @param hash Mixed key hash.
+     * @param step Odd step derived from the hash.
+     * @param row  Row of the counter.
+     * @return The index of the counter.
+     */
+    private int indexOf(final int hash, final int step, final int row) {
+        return row * (this.mask + 1) + ((hash + row * step) & this.mask);
+    }
+
+    /**
+     * Spread the bits of the hash code, the keys hash codes are often poorly distributed in the low bits.
+     *
+     * @param hash Key hash code.
+     * @return The mixed hash.
+     */
+    private static int mix(final int hash) {
+        int h = hash ^ (hash >>> 16);
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+}
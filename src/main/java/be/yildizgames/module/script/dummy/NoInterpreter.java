@@ -25,6 +25,7 @@
 
 package be.yildizgames.module.script.dummy;
 
+import be.yildizgames.module.script.ArgumentFrame;
 import be.yildizgames.module.script.ParsedScript;
 import be.yildizgames.module.script.ScriptInterpreter;
 
@@ -37,6 +38,22 @@ import java.io.Writer;
  */
 final class NoInterpreter extends ScriptInterpreter {
 
+    /**
+     * Script doing nothing and returning nothing.
+     */
+    private static final ParsedScript NO_SCRIPT = new ParsedScript() {
+
+        @Override
+        public void run() {
+            // Does nothing.
+        }
+
+        @Override
+        public void run(final ArgumentFrame frame) {
+            frame.returnVoid();
+        }
+    };
+
     private boolean closed;
 
     NoInterpreter() {
@@ -45,9 +62,7 @@ final class NoInterpreter extends ScriptInterpreter {
 
     @Override
     public ParsedScript runScript(final String file) {
-        return () -> {
-            // Does nothing.
-        };
+        return NO_SCRIPT;
     }
 
     @Override
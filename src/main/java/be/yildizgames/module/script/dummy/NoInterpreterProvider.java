@@ -25,8 +25,13 @@
 
 package be.yildizgames.module.script.dummy;
 
+import be.yildizgames.module.script.ParsedScript;
 import be.yildizgames.module.script.ScriptInterpreter;
 import be.yildizgames.module.script.ScriptInterpreterProvider;
+import be.yildizgames.module.script.ScriptSerializer;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
 
 /**
  * @author Grégory Van den Borre
@@ -39,4 +44,49 @@ public class NoInterpreterProvider implements ScriptInterpreterProvider {
         return new NoInterpreter();
     }
 
+    /**
+     * @return "none".
+     */
+    @Override
+    public String getName() {
+        return "none";
+    }
+
+    /**
+     * @return The lowest priority, any other provider is preferred.
+     */
+    @Override
+    public int getPriority() {
+        return Integer.MIN_VALUE;
+    }
+
+    /**
+     * @return "txt".
+     */
+    @Override
+    public String getFileExtension() {
+        return "txt";
+    }
+
+    /**
+     * @return A serializer producing empty payloads and scripts doing nothing.
+     */
+    @Override
+    public Optional<ScriptSerializer> getSerializer() {
+        return Optional.of(new ScriptSerializer() {
+
+            @Override
+            public byte[] serialize(final ParsedScript script) {
+                return new byte[0];
+            }
+
+            @Override
+            public ParsedScript deserialize(final ScriptInterpreter interpreter, final ByteBuffer payload) {
+                return () -> {
+                    // Does nothing.
+                };
+            }
+        });
+    }
+
 }
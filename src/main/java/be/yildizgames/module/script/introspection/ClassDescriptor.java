@@ -0,0 +1,174 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.introspection;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Public methods and fields of a class, computed once per class.
+ * Descriptors are cached in a ClassValue, so the cache does not prevent a class from being unloaded.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class ClassDescriptor {
+
+    private static final ClassValue<ClassDescriptor> CACHE = new ClassValue<>() {
+        @Override
+        protected ClassDescriptor computeValue(final Class<?> type) {
+            return new ClassDescriptor(type);
+        }
+    };
+
+    private final Class<?> type;
+
+    /**
+     * Methods sorted by name.
+     */
+    private final List<MethodDescriptor> methods;
+
+    /**
+     * Fields sorted by name.
+     */
+    private final List<FieldDescriptor> fields;
+
+    /**
+     * Distinct method names, sorted.
+     */
+    private final List<String> methodNames;
+
+    private ClassDescriptor(final Class<?> type) {
+        super();
+        this.type = type;
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        List<MethodDescriptor> m = new ArrayList<>();
+        for (Method method : type.getMethods()) {
+            m.add(new MethodDescriptor(
+                    method.getName(),
+                    method.getReturnType(),
+                    List.of(method.getParameterTypes()),
+                    Modifier.isStatic(method.getModifiers()),
+                    unreflect(lookup, method)));
+        }
+        m.sort(Comparator.comparing(MethodDescriptor::name).thenComparing(d -> d.parameterTypes().size()));
+        this.methods = Collections.unmodifiableList(m);
+        this.methodNames = m.stream().map(MethodDescriptor::name).distinct().toList();
+        this.fields = Arrays.stream(type.getFields())
+                .map(f -> new FieldDescriptor(f.getName(), f.getType(), Modifier.isStatic(f.getModifiers()), unreflectGetter(lookup, f)))
+                .sorted(Comparator.comparing(FieldDescriptor::name))
+                .toList();
+    }
+
+    /**
+     * Retrieve the descriptor of a class, computed on first call.
+     *
+     * @param type Class to describe.
+     * @return The class descriptor.
+     */
+    public static ClassDescriptor of(final Class<?> type) {
+        return CACHE.get(type);
+    }
+
+    /**
+     * @return The described class.
+     */
+    public Class<?> getType() {
+        return this.type;
+    }
+
+    /**
+     * @return The public methods, including the inherited ones, sorted by name.
+     */
+    public List<MethodDescriptor> getMethods() {
+        return this.methods;
+    }
+
+    /**
+     * @return The public fields, sorted by name.
+     */
+    public List<FieldDescriptor> getFields() {
+        return this.fields;
+    }
+
+    /**
+     * @return The distinct public method names, sorted.
+     */
+    public List<String> getMethodNames() {
+        return this.methodNames;
+    }
+
+    /**
+     * Find the method names starting with a prefix, for auto completion.
+     *
+     * @param prefix Prefix to look for.
+     * @return The matching method names, sorted.
+     */
+    public List<String> findMethodNames(final String prefix) {
+        int index = Collections.binarySearch(this.methodNames, prefix);
+        int from = index < 0 ? -index - 1 : index;
+        int to = from;
+        while (to < this.methodNames.size() && this.methodNames.get(to).startsWith(prefix)) {
+            to++;
+        }
+        return this.methodNames.subList(from, to);
+    }
+
+    /**
+     * @return The method signatures, one per line.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (MethodDescriptor method : this.methods) {
+            sb.append(method.signature()).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    private static MethodHandle unreflect(final MethodHandles.Lookup lookup, final Method method) {
+        try {
+            return lookup.unreflect(method);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private static MethodHandle unreflectGetter(final MethodHandles.Lookup lookup, final Field field) {
+        try {
+            return lookup.unreflectGetter(field);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.introspection;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Public method of a class, with its pre-resolved method handle.
+ *
+ * @param name           Method name.
+ * @param returnType     Method return type.
+ * @param parameterTypes Method parameter types.
+ * @param isStatic       True for a static method.
+ * @param handle         Handle to invoke the method, null if it is not accessible from this module.
+ * @author Grégory Van den Borre
+ */
+public record MethodDescriptor(String name, Class<?> returnType, List<Class<?>> parameterTypes, boolean isStatic, MethodHandle handle) {
+
+    /**
+     * @return The method signature, as "returnType name(parameterTypes)".
+     */
+    public String signature() {
+        return this.returnType.getSimpleName() + " " + this.name
+                + this.parameterTypes.stream().map(Class::getSimpleName).collect(Collectors.joining(", ", "(", ")"));
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.loader;
+
+import be.yildizgames.module.script.ParsedScript;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a directory load.
+ *
+ * @param scripts Successfully loaded scripts, by name, sorted by name.
+ * @param errors  Scripts that could not be loaded, sorted by name.
+ * @author Grégory Van den Borre
+ */
+public record LoadResult(Map<String, ParsedScript> scripts, List<LoadError> errors) {
+
+    /**
+     * @return True if all the scripts were loaded.
+     */
+    public boolean isSuccess() {
+        return this.errors.isEmpty();
+    }
+
+    /**
+     * @return A readable report of the load, one line per error.
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(this.scripts.size()).append(" script(s) loaded, ").append(this.errors.size()).append(" error(s).");
+        for (LoadError error : this.errors) {
+            sb.append(System.lineSeparator())
+                    .append(error.failure()).append(' ')
+                    .append(error.name()).append(": ")
+                    .append(error.message());
+        }
+        return sb.toString();
+    }
+}
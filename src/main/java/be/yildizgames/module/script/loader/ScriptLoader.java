@@ -0,0 +1,338 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.loader;
+
+import be.yildizgames.module.script.ParsedScript;
+import be.yildizgames.module.script.ScriptException;
+import be.yildizgames.module.script.ScriptInterpreter;
+import be.yildizgames.module.script.pool.ScriptInterpreterPool;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * Load all the scripts of a directory tree in parallel, a script is only parsed once all its dependencies are loaded.
+ * Dependencies are declared in the script header, the block of lines at the top of the file ending with the first blank line,
+ * with the word "@depends" followed by script names separated by commas or spaces, inside a comment of the script language.
+ * A script name is its path relative to the directory, with "/" as separator and without extension, as "ai/common".
+ * Scripts are parsed with runScript, so each one is run once when loaded as it would be with sequential calls.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class ScriptLoader {
+
+    /**
+     * Keyword declaring the dependencies in a script header.
+     */
+    public static final String DEPENDS = "@depends";
+
+    /**
+     * Maximum number of lines read for the header.
+     */
+    private static final int MAX_HEADER_LINES = 64;
+
+    private final Parser parser;
+
+    private final Probe probe;
+
+    private final ForkJoinPool forkJoinPool;
+
+    /**
+     * Create a loader parsing the scripts with the interpreters of a pool, each script is parsed by the interpreter available at that time,
+     * so the scripts must not rely on definitions made by their dependencies in the same interpreter, only on shared state.
+     * The loaded scripts stay bound to pooled interpreters other borrowers can use, only thread safe scripts can be run from the result,
+     * the others must be run again under a lease.
+     *
+     * @param pool    Pool providing the interpreters.
+     * @param timeout Maximum time to wait for an interpreter.
+     */
+    public ScriptLoader(final ScriptInterpreterPool pool, final Duration timeout) {
+        super();
+        Objects.requireNonNull(pool);
+        Objects.requireNonNull(timeout);
+        this.parser = file -> {
+            try (ScriptInterpreterPool.Lease lease = pool.checkout(timeout)) {
+                return lease.getInterpreter().runScript(file);
+            }
+        };
+        this.probe = () -> {
+            try (ScriptInterpreterPool.Lease lease = pool.checkout(timeout)) {
+                return FileFormat.of(lease.getInterpreter());
+            }
+        };
+        this.forkJoinPool = null;
+    }
+
+    /**
+     * Create a loader parsing the scripts with one interpreter from the threads of a fork join pool,
+     * the interpreter must support concurrent runScript calls.
+     *
+     * @param interpreter  Interpreter parsing the scripts.
+     * @param forkJoinPool Pool running the parsing.
+     */
+    public ScriptLoader(final ScriptInterpreter interpreter, final ForkJoinPool forkJoinPool) {
+        super();
+        Objects.requireNonNull(interpreter);
+        this.parser = interpreter::runScript;
+        this.probe = () -> FileFormat.of(interpreter);
+        this.forkJoinPool = Objects.requireNonNull(forkJoinPool);
+    }
+
+    /**
+     * Load all the scripts of a directory and its sub directories with the interpreter file extension.
+     * A script failing to load does not stop the others, except those depending on it.
+     *
+     * @param directory Root directory.
+     * @return The loaded scripts and the errors.
+     * @throws ScriptException If the directory cannot be walked.
+     */
+    public LoadResult load(final Path directory) throws ScriptException {
+        FileFormat format = this.probe.get();
+        String extension = "." + format.extension;
+        String fileHeader = format.header.trim();
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            files = walk.filter(Files::isRegularFile)
+                    .filter(p -> p.getFileName().toString().endsWith(extension))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new ScriptException(e);
+        }
+        ExecutorService ownedExecutor = this.forkJoinPool == null ? Executors.newVirtualThreadPerTaskExecutor() : null;
+        try {
+            return this.load(directory, files, extension, fileHeader, ownedExecutor == null ? this.forkJoinPool : ownedExecutor);
+        } finally {
+            if (ownedExecutor != null) {
+                ownedExecutor.close();
+            }
+        }
+    }
+
+    private LoadResult load(final Path directory, final List<Path> files, final String extension, final String fileHeader, final Executor executor) {
+        Queue<LoadError> errors = new ConcurrentLinkedQueue<>();
+        Map<String, ParsedScript> scripts = new ConcurrentHashMap<>();
+        List<CompletableFuture<Source>> reads = new ArrayList<>(files.size());
+        for (Path file : files) {
+            reads.add(CompletableFuture.supplyAsync(() -> readSource(directory, file, extension, fileHeader, errors), executor));
+        }
+        Map<String, Source> sources = new HashMap<>();
+        for (CompletableFuture<Source> read : reads) {
+            Source source = read.join();
+            if (source != null) {
+                sources.put(source.name, source);
+            }
+        }
+        Map<String, CompletableFuture<Boolean>> loads = new HashMap<>();
+        for (Source source : order(sources, errors)) {
+            List<CompletableFuture<Boolean>> dependencies = source.dependencies.stream().map(loads::get).toList();
+            loads.put(source.name, CompletableFuture.allOf(dependencies.toArray(CompletableFuture[]::new)).thenApplyAsync(v -> {
+                try {
+                    for (int i = 0; i < dependencies.size(); i++) {
+                        if (!dependencies.get(i).join()) {
+                            errors.add(new LoadError(source.name, source.file, LoadFailure.DEPENDENCY_FAILED,
+                                    "Dependency " + source.dependencies.get(i) + " failed to load.", null));
+                            return false;
+                        }
+                    }
+                    scripts.put(source.name, this.parser.parse(source.file.toString()));
+                    return true;
+                } catch (ScriptException | RuntimeException e) {
+                    errors.add(new LoadError(source.name, source.file, LoadFailure.PARSE, String.valueOf(e.getMessage()), e));
+                    return false;
+                }
+            }, executor));
+        }
+        CompletableFuture.allOf(loads.values().toArray(CompletableFuture[]::new)).join();
+        List<LoadError> sortedErrors = new ArrayList<>(errors);
+        sortedErrors.sort(Comparator.comparing(LoadError::name));
+        return new LoadResult(Collections.unmodifiableMap(new TreeMap<>(scripts)), List.copyOf(sortedErrors));
+    }
+
+    /**
+     * Sort the scripts so every script comes after its dependencies, scripts with a missing dependency or in a cycle are removed and reported.
+     *
+     * @param sources Scripts by name.
+     * @param errors  Receive the errors.
+     * @return The scripts in dependency order.
+     */
+    private static List<Source> order(final Map<String, Source> sources, final Queue<LoadError> errors) {
+        Map<String, Integer> pending = new HashMap<>();
+        Map<String, List<Source>> dependents = new HashMap<>();
+        Deque<Source> ready = new ArrayDeque<>();
+        for (Source source : sources.values()) {
+            int count = 0;
+            for (String dependency : source.dependencies) {
+                if (!sources.containsKey(dependency)) {
+                    errors.add(new LoadError(source.name, source.file, LoadFailure.MISSING_DEPENDENCY, "Dependency " + dependency + " not found.", null));
+                    count = -1;
+                    break;
+                }
+                dependents.computeIfAbsent(dependency, d -> new ArrayList<>()).add(source);
+                count++;
+            }
+            pending.put(source.name, count);
+            if (count == 0) {
+                ready.add(source);
+            }
+        }
+        List<Source> ordered = new ArrayList<>(sources.size());
+        while (!ready.isEmpty()) {
+            Source source = ready.poll();
+            ordered.add(source);
+            for (Source dependent : dependents.getOrDefault(source.name, List.of())) {
+                int count = pending.merge(dependent.name, -1, Integer::sum);
+                if (count == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        List<Source> missing = sources.values().stream().filter(s -> pending.get(s.name) < 0).toList();
+        for (Source source : missing) {
+            markFailed(source, dependents, pending, errors);
+        }
+        for (Source source : sources.values()) {
+            if (pending.get(source.name) > 0) {
+                errors.add(new LoadError(source.name, source.file, LoadFailure.CYCLE, "Dependency cycle or dependency on a script in a cycle.", null));
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Report the scripts depending on a script that will never be loaded, they are not reported as cycle.
+     */
+    private static void markFailed(final Source failed, final Map<String, List<Source>> dependents, final Map<String, Integer> pending, final Queue<LoadError> errors) {
+        for (Source dependent : dependents.getOrDefault(failed.name, List.of())) {
+            if (pending.get(dependent.name) > 0) {
+                pending.put(dependent.name, -1);
+                errors.add(new LoadError(dependent.name, dependent.file, LoadFailure.DEPENDENCY_FAILED, "Dependency " + failed.name + " failed to load.", null));
+                markFailed(dependent, dependents, pending, errors);
+            }
+        }
+    }
+
+    private static Source readSource(final Path directory, final Path file, final String extension, final String fileHeader, final Queue<LoadError> errors) {
+        String relative = directory.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+        String name = relative.substring(0, relative.length() - extension.length());
+        try {
+            return new Source(name, file, readDependencies(file, fileHeader));
+        } catch (IOException | RuntimeException e) {
+            errors.add(new LoadError(name, file, LoadFailure.READ, String.valueOf(e.getMessage()), e));
+            return null;
+        }
+    }
+
+    private static List<String> readDependencies(final Path file, final String fileHeader) throws IOException {
+        List<String> dependencies = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int count = 0;
+            while ((line = reader.readLine()) != null && count++ < MAX_HEADER_LINES) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty()) {
+                    break;
+                }
+                if (trimmed.equals(fileHeader)) {
+                    continue;
+                }
+                int index = trimmed.indexOf(DEPENDS);
+                if (index >= 0) {
+                    for (String dependency : trimmed.substring(index + DEPENDS.length()).split("[,\\s]+")) {
+                        if (!dependency.isEmpty()) {
+                            dependencies.add(dependency);
+                        }
+                    }
+                }
+            }
+        }
+        return dependencies;
+    }
+
+    @FunctionalInterface
+    private interface Parser {
+
+        ParsedScript parse(String file) throws ScriptException;
+    }
+
+    @FunctionalInterface
+    private interface Probe {
+
+        FileFormat get() throws ScriptException;
+    }
+
+    /**
+     * Extension and header of the interpreter script files.
+     */
+    private record FileFormat(String extension, String header) {
+
+        private static FileFormat of(final ScriptInterpreter interpreter) {
+            return new FileFormat(interpreter.getFileExtension(), interpreter.getFileHeader());
+        }
+    }
+
+    /**
+     * Script file with its declared dependencies.
+     */
+    private static final class Source {
+
+        private final String name;
+
+        private final Path file;
+
+        private final List<String> dependencies;
+
+        private Source(final String name, final Path file, final List<String> dependencies) {
+            super();
+            this.name = name;
+            this.file = file;
+            this.dependencies = dependencies;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.memory;
+
+import be.yildizgames.module.script.ArgumentFrame;
+import be.yildizgames.module.script.BatchInput;
+import be.yildizgames.module.script.BatchMode;
+import be.yildizgames.module.script.BatchOutput;
+import be.yildizgames.module.script.CommandResult;
+import be.yildizgames.module.script.CompiledCommand;
+import be.yildizgames.module.script.ExecutionMonitor;
+import be.yildizgames.module.script.ForwardingScriptInterpreter;
+import be.yildizgames.module.script.MemoryLimitExceededException;
+import be.yildizgames.module.script.MemoryUsage;
+import be.yildizgames.module.script.ParsedScript;
+import be.yildizgames.module.script.ScriptException;
+import be.yildizgames.module.script.ScriptInterpreter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Script interpreter decorator enforcing a memory budget with the usage reported by the interpreter.
+ * The usage is checked before every call, a call is refused when the hard limit is exceeded, and after every call, to apply the soft limit.
+ * A single call can still go over the hard limit, the following calls are then refused until the memory is released.
+ * The runs of the parsed scripts returned by runScript are checked the same way, a run refused by the hard limit
+ * throws an IllegalStateException caused by the MemoryLimitExceededException, as the runs cannot throw checked exceptions.
+ *
+ * @author Grégory Van den Borre
+ */
+public class BudgetedScriptInterpreter extends ForwardingScriptInterpreter {
+
+    private final MemoryBudget budget;
+
+    /**
+     * True while the usage is over the soft limit, to run the evictors and notify only once, even with concurrent calls.
+     */
+    private final AtomicBoolean overSoftLimit = new AtomicBoolean();
+
+    /**
+     * Create a new budgeted interpreter.
+     *
+     * @param delegate Interpreter to decorate, reporting its memory usage.
+     * @param budget   Limits to enforce.
+     */
+    public BudgetedScriptInterpreter(final ScriptInterpreter delegate, final MemoryBudget budget) {
+        super(delegate);
+        this.budget = Objects.requireNonNull(budget);
+    }
+
+    @Override
+    public ParsedScript runScript(final String file) throws ScriptException {
+        this.checkHardLimit();
+        try {
+            return new BudgetedScript(this.delegate.runScript(file));
+        } finally {
+            this.checkSoftLimit();
+        }
+    }
+
+    @Override
+    public Object runCommand(final String command) throws ScriptException {
+        this.checkHardLimit();
+        try {
+            return this.delegate.runCommand(command);
+        } finally {
+            this.checkSoftLimit();
+        }
+    }
+
+    @Override
+    public Object runCommand(final String command, final ExecutionMonitor monitor) throws ScriptException {
+        this.checkHardLimit();
+        try {
+            return this.delegate.runCommand(command, monitor);
+        } finally {
+            this.checkSoftLimit();
+        }
+    }
+
+    @Override
+    public CompiledCommand compileCommand(final String command) throws ScriptException {
+        CompiledCommand compiled = this.delegate.compileCommand(command);
+        return new CompiledCommand() {
+            @Override
+            public Object run() throws ScriptException {
+                BudgetedScriptInterpreter.this.checkHardLimit();
+                try {
+                    return compiled.run();
+                } finally {
+                    BudgetedScriptInterpreter.this.checkSoftLimit();
+                }
+            }
+
+            @Override
+            public Object run(final ExecutionMonitor monitor) throws ScriptException {
+                BudgetedScriptInterpreter.this.checkHardLimit();
+                try {
+                    return compiled.run(monitor);
+                } finally {
+                    BudgetedScriptInterpreter.this.checkSoftLimit();
+                }
+            }
+        };
+    }
+
+    @Override
+    public List<CommandResult> runCommands(final List<String> commands, final BatchMode mode) {
+        List<CommandResult> results = new ArrayList<>(commands.size());
+        for (String command : commands) {
+            try {
+                results.add(CommandResult.success(command, this.runCommand(command)));
+            } catch (ScriptException e) {
+                results.add(CommandResult.failure(command, e));
+                if (mode == BatchMode.STOP_ON_FIRST_ERROR) {
+                    break;
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @return The enforced budget.
+     */
+    public final MemoryBudget getBudget() {
+        return this.budget;
+    }
+
+    private void checkHardLimitUnchecked() {
+        try {
+            this.checkHardLimit();
+        } catch (MemoryLimitExceededException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void checkHardLimit() throws MemoryLimitExceededException {
+        MemoryUsage usage = this.delegate.getMemoryUsage();
+        if (usage.total() > this.budget.getHardLimit()) {
+            for (MemoryListener listener : this.budget.getListeners()) {
+                listener.onHardLimitExceeded(this, usage, this.budget.getHardLimit());
+            }
+            throw new MemoryLimitExceededException(usage.total(), this.budget.getHardLimit());
+        }
+    }
+
+    private void checkSoftLimit() {
+        long limit = this.budget.getSoftLimit();
+        if (this.delegate.getMemoryUsage().total() <= limit) {
+            this.overSoftLimit.set(false);
+            return;
+        }
+        if (!this.overSoftLimit.compareAndSet(false, true)) {
+            return;
+        }
+        for (Runnable evictor : this.budget.getEvictors()) {
+            evictor.run();
+        }
+        MemoryUsage usage = this.delegate.getMemoryUsage();
+        if (usage.total() <= limit) {
+            this.overSoftLimit.set(false);
+            return;
+        }
+        for (MemoryListener listener : this.budget.getListeners()) {
+            listener.onSoftLimitExceeded(this, usage, limit);
+        }
+    }
+
+    /**
+     * Parsed script checking the budget around each of its runs.
+     */
+    private final class BudgetedScript implements ParsedScript {
+
+        private final ParsedScript script;
+
+        private BudgetedScript(final ParsedScript script) {
+            super();
+            this.script = script;
+        }
+
+        @Override
+        public void run() {
+            BudgetedScriptInterpreter.this.checkHardLimitUnchecked();
+            try {
+                this.script.run();
+            } finally {
+                BudgetedScriptInterpreter.this.checkSoftLimit();
+            }
+        }
+
+        @Override
+        public void run(final ExecutionMonitor monitor) {
+            BudgetedScriptInterpreter.this.checkHardLimitUnchecked();
+            try {
+                this.script.run(monitor);
+            } finally {
+                BudgetedScriptInterpreter.this.checkSoftLimit();
+            }
+        }
+
+        @Override
+        public void run(final ArgumentFrame frame) {
+            BudgetedScriptInterpreter.this.checkHardLimitUnchecked();
+            try {
+                this.script.run(frame);
+            } finally {
+                BudgetedScriptInterpreter.this.checkSoftLimit();
+            }
+        }
+
+        @Override
+        public void runBatch(final BatchInput input, final BatchOutput output, final int from, final int to, final ArgumentFrame frame) {
+            BudgetedScriptInterpreter.this.checkHardLimitUnchecked();
+            try {
+                this.script.runBatch(input, output, from, to, frame);
+            } finally {
+                BudgetedScriptInterpreter.this.checkSoftLimit();
+            }
+        }
+
+        @Override
+        public boolean isThreadSafe() {
+            return this.script.isThreadSafe();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.memory;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Memory limits of an interpreter.
+ * Going over the soft limit runs the evictors, as a cache trimTo or invalidateAll, then notifies the listeners.
+ * Going over the hard limit makes the interpreter refuse the calls with a MemoryLimitExceededException.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class MemoryBudget {
+
+    private final long softLimit;
+
+    private final long hardLimit;
+
+    private final List<Runnable> evictors = new CopyOnWriteArrayList<>();
+
+    private final List<MemoryListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Create a new budget.
+     *
+     * @param softLimit Usage triggering the eviction and the notifications, in bytes.
+     * @param hardLimit Usage making the calls fail, in bytes.
+     */
+    public MemoryBudget(final long softLimit, final long hardLimit) {
+        super();
+        if (softLimit < 0 || hardLimit < softLimit) {
+            throw new IllegalArgumentException("Invalid limits, soft: " + softLimit + ", hard: " + hardLimit);
+        }
+        this.softLimit = softLimit;
+        this.hardLimit = hardLimit;
+    }
+
+    /**
+     * Add an action freeing memory, run when the soft limit is exceeded.
+     *
+     * @param evictor Action to run.
+     * @return This object.
+     */
+    public MemoryBudget addEvictor(final Runnable evictor) {
+        this.evictors.add(Objects.requireNonNull(evictor));
+        return this;
+    }
+
+    /**
+     * Add a listener notified when the limits are exceeded.
+     *
+     * @param listener Listener to add.
+     * @return This object.
+     */
+    public MemoryBudget addListener(final MemoryListener listener) {
+        this.listeners.add(Objects.requireNonNull(listener));
+        return this;
+    }
+
+    public long getSoftLimit() {
+        return this.softLimit;
+    }
+
+    public long getHardLimit() {
+        return this.hardLimit;
+    }
+
+    List<Runnable> getEvictors() {
+        return this.evictors;
+    }
+
+    List<MemoryListener> getListeners() {
+        return this.listeners;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.memory;
+
+import be.yildizgames.module.script.MemoryUsage;
+import be.yildizgames.module.script.ScriptInterpreter;
+
+/**
+ * Notified when an interpreter crosses the limits of its memory budget.
+ *
+ * @author Grégory Van den Borre
+ */
+@FunctionalInterface
+public interface MemoryListener {
+
+    /**
+     * Called once when the usage goes over the soft limit, after the evictors ran, and again only after it went back under it.
+     *
+     * @param interpreter Interpreter over its soft limit.
+     * @param usage       Usage after eviction.
+     * @param limit       Soft limit, in bytes.
+     */
+    void onSoftLimitExceeded(ScriptInterpreter interpreter, MemoryUsage usage, long limit);
+
+    /**
+     * Called every time a call is refused because the usage is over the hard limit.
+     * This implementation does nothing.
+     *
+     * @param interpreter Interpreter over its hard limit.
+     * @param usage       Current usage.
+     * @param limit       Hard limit, in bytes.
+     */
+    default void onHardLimitExceeded(final ScriptInterpreter interpreter, final MemoryUsage usage, final long limit) {
+        // Nothing to do.
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.metrics;
+
+import be.yildizgames.module.script.ArgumentFrame;
+import be.yildizgames.module.script.BatchInput;
+import be.yildizgames.module.script.BatchMode;
+import be.yildizgames.module.script.BatchOutput;
+import be.yildizgames.module.script.CommandResult;
+import be.yildizgames.module.script.CompiledCommand;
+import be.yildizgames.module.script.ExecutionMonitor;
+import be.yildizgames.module.script.ForwardingScriptInterpreter;
+import be.yildizgames.module.script.ParsedScript;
+import be.yildizgames.module.script.ScriptException;
+import be.yildizgames.module.script.ScriptInterpreter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Script interpreter decorator measuring the number of calls, errors and latency of scripts and commands.
+ * Scripts are tagged by file, parsed scripts returned by runScript are measured on every run.
+ * Commands are grouped in a fixed number of buckets by their first word, so arbitrary commands cannot create an unbounded number of tags,
+ * commands with different first words may share a bucket, the bucket is then named after the first command it received.
+ * Compiled commands are measured on every run, in the bucket of their command.
+ * The batches of commands and rows are measured as a whole, each command or row is recorded with the batch average latency.
+ * Once a tag exists, recording a call does not allocate.
+ *
+ * @author Grégory Van den Borre
+ */
+public class InstrumentedScriptInterpreter extends ForwardingScriptInterpreter {
+
+    /**
+     * Number of command buckets, must be a power of 2.
+     */
+    private static final int COMMAND_BUCKETS = 64;
+
+    private final Map<String, ScriptMetrics> scripts = new ConcurrentHashMap<>();
+
+    private final Map<String, ScriptMetrics> parsedRuns = new ConcurrentHashMap<>();
+
+    private final ScriptMetrics[] commands = new ScriptMetrics[COMMAND_BUCKETS];
+
+    /**
+     * Create a new instrumented interpreter.
+     *
+     * @param delegate Interpreter to measure.
+     */
+    public InstrumentedScriptInterpreter(final ScriptInterpreter delegate) {
+        super(delegate);
+        for (int i = 0; i < COMMAND_BUCKETS; i++) {
+            this.commands[i] = new ScriptMetrics(Operation.RUN_COMMAND, null);
+        }
+    }
+
+    @Override
+    public ParsedScript runScript(final String file) throws ScriptException {
+        ScriptMetrics metrics = get(this.scripts, Operation.RUN_SCRIPT, file);
+        ScriptMetrics runMetrics = get(this.parsedRuns, Operation.RUN_PARSED, file);
+        long start = System.nanoTime();
+        boolean error = true;
+        try {
+            ParsedScript script = this.delegate.runScript(file);
+            error = false;
+            return new MeasuredScript(script, runMetrics);
+        } finally {
+            metrics.record(System.nanoTime() - start, error);
+        }
+    }
+
+    @Override
+    public Object runCommand(final String command) throws ScriptException {
+        ScriptMetrics metrics = this.commandMetrics(command);
+        long start = System.nanoTime();
+        boolean error = true;
+        try {
+            Object result = this.delegate.runCommand(command);
+            error = false;
+            return result;
+        } finally {
+            metrics.record(System.nanoTime() - start, error);
+        }
+    }
+
+    @Override
+    public Object runCommand(final String command, final ExecutionMonitor monitor) throws ScriptException {
+        ScriptMetrics metrics = this.commandMetrics(command);
+        long start = System.nanoTime();
+        boolean error = true;
+        try {
+            Object result = this.delegate.runCommand(command, monitor);
+            error = false;
+            return result;
+        } finally {
+            metrics.record(System.nanoTime() - start, error);
+        }
+    }
+
+    @Override
+    public CompiledCommand compileCommand(final String command) throws ScriptException {
+        ScriptMetrics metrics = this.commandMetrics(command);
+        CompiledCommand compiled;
+        try {
+            compiled = this.delegate.compileCommand(command);
+        } catch (ScriptException | RuntimeException e) {
+            metrics.record(0, true);
+            throw e;
+        }
+        return new MeasuredCommand(compiled, metrics);
+    }
+
+    @Override
+    public List<CommandResult> runCommands(final List<String> commands, final BatchMode mode) {
+        long start = System.nanoTime();
+        List<CommandResult> results = this.delegate.runCommands(commands, mode);
+        if (!results.isEmpty()) {
+            long average = (System.nanoTime() - start) / results.size();
+            for (CommandResult result : results) {
+                this.commandMetrics(result.command()).record(average, !result.isSuccess());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @return The current metrics, one per operation and tag.
+     */
+    public List<MetricSnapshot> snapshot() {
+        List<MetricSnapshot> result = new ArrayList<>();
+        this.scripts.values().forEach(m -> result.add(m.snapshot()));
+        this.parsedRuns.values().forEach(m -> result.add(m.snapshot()));
+        for (ScriptMetrics m : this.commands) {
+            if (m.isUsed()) {
+                result.add(m.snapshot());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Send the current metrics to an exporter.
+     *
+     * @param exporter Exporter to use.
+     */
+    public void export(final MetricsExporter exporter) {
+        exporter.export(this.snapshot());
+    }
+
+    private ScriptMetrics commandMetrics(final String command) {
+        int end = 0;
+        int hash = 0;
+        while (end < command.length()) {
+            char c = command.charAt(end);
+            if (Character.isWhitespace(c) || c == '(' || c == '.') {
+                break;
+            }
+            hash = 31 * hash + c;
+            end++;
+        }
+        ScriptMetrics metrics = this.commands[(hash ^ (hash >>> 16)) & (COMMAND_BUCKETS - 1)];
+        if (!metrics.isUsed()) {
+            metrics.setTagIfAbsent(command.substring(0, end));
+        }
+        return metrics;
+    }
+
+    private static ScriptMetrics get(final Map<String, ScriptMetrics> map, final Operation operation, final String file) {
+        ScriptMetrics metrics = map.get(file);
+        if (metrics == null) {
+            metrics = map.computeIfAbsent(file, f -> new ScriptMetrics(operation, f));
+        }
+        return metrics;
+    }
+
+    /**
+     * Parsed script measuring its runs.
+     */
+    private static final class MeasuredScript implements ParsedScript {
+
+        private final ParsedScript script;
+
+        private final ScriptMetrics metrics;
+
+        private MeasuredScript(final ParsedScript script, final ScriptMetrics metrics) {
+            super();
+            this.script = script;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            boolean error = true;
+            try {
+                this.script.run();
+                error = false;
+            } finally {
+                this.metrics.record(System.nanoTime() - start, error);
+            }
+        }
+
+        @Override
+        public void run(final ExecutionMonitor monitor) {
+            long start = System.nanoTime();
+            boolean error = true;
+            try {
+                this.script.run(monitor);
+                error = false;
+            } finally {
+                this.metrics.record(System.nanoTime() - start, error);
+            }
+        }
+
+        @Override
+        public void run(final ArgumentFrame frame) {
+            long start = System.nanoTime();
+            boolean error = true;
+            try {
+                this.script.run(frame);
+                error = false;
+            } finally {
+                this.metrics.record(System.nanoTime() - start, error);
+            }
+        }
+
+        @Override
+        public void runBatch(final BatchInput input, final BatchOutput output, final int from, final int to, final ArgumentFrame frame) {
+            long start = System.nanoTime();
+            boolean error = true;
+            try {
+                this.script.runBatch(input, output, from, to, frame);
+                error = false;
+            } finally {
+                int rows = to - from;
+                if (rows > 0) {
+                    long average = (System.nanoTime() - start) / rows;
+                    for (int i = 0; i < rows; i++) {
+                        this.metrics.record(average, error);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public boolean isThreadSafe() {
+            return this.script.isThreadSafe();
+        }
+    }
+
+    /**
+     * Compiled command measuring its runs.
+     */
+    private static final class MeasuredCommand implements CompiledCommand {
+
+        private final CompiledCommand command;
+
+        private final ScriptMetrics metrics;
+
+        private MeasuredCommand(final CompiledCommand command, final ScriptMetrics metrics) {
+            super();
+            this.command = command;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public Object run() throws ScriptException {
+            long start = System.nanoTime();
+            boolean error = true;
+            try {
+                Object result = this.command.run();
+                error = false;
+                return result;
+            } finally {
+                this.metrics.record(System.nanoTime() - start, error);
+            }
+        }
+
+        @Override
+        public Object run(final ExecutionMonitor monitor) throws ScriptException {
+            long start = System.nanoTime();
+            boolean error = true;
+            try {
+                Object result = this.command.run(monitor);
+                error = false;
+                return result;
+            } finally {
+                this.metrics.record(System.nanoTime() - start, error);
+            }
+        }
+    }
+}
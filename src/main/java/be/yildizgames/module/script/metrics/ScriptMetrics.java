@@ -0,0 +1,83 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histogram of an operation for a tag.
+ *
+ * @author Grégory Van den Borre
+ */
+final class ScriptMetrics {
+
+    private final Operation operation;
+
+    private final LongAdder calls = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private volatile String tag;
+
+    ScriptMetrics(final Operation operation, final String tag) {
+        super();
+        this.operation = operation;
+        this.tag = tag;
+    }
+
+    void record(final long nanos, final boolean error) {
+        this.calls.increment();
+        if (error) {
+            this.errors.increment();
+        }
+        this.latency.record(nanos);
+    }
+
+    boolean isUsed() {
+        return this.tag != null;
+    }
+
+    void setTagIfAbsent(final String tag) {
+        if (this.tag == null) {
+            this.tag = tag;
+        }
+    }
+
+    MetricSnapshot snapshot() {
+        return new MetricSnapshot(
+                this.operation,
+                this.tag,
+                this.calls.sum(),
+                this.errors.sum(),
+                this.latency.getMean(),
+                this.latency.getPercentile(50),
+                this.latency.getPercentile(90),
+                this.latency.getPercentile(99),
+                this.latency.getMax());
+    }
+}
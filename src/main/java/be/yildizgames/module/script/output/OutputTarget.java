@@ -0,0 +1,213 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.output;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Destination of the script output, only called from the drainer thread.
+ *
+ * @author Grégory Van den Borre
+ */
+public interface OutputTarget {
+
+    /**
+     * Write a batch of characters.
+     *
+     * @param buffer Characters to write.
+     * @param offset First character to write.
+     * @param length Number of characters to write.
+     * @throws IOException If the write fails.
+     */
+    void write(char[] buffer, int offset, int length) throws IOException;
+
+    /**
+     * Flush the written characters, called when no more output is buffered.
+     *
+     * @throws IOException If the flush fails.
+     */
+    void flush() throws IOException;
+
+    /**
+     * Called once after the last write when the output is closed, to write any state kept by the target, the destination stays open.
+     * This implementation flushes.
+     *
+     * @throws IOException If the write fails.
+     */
+    default void finish() throws IOException {
+        this.flush();
+    }
+
+    /**
+     * @param writer Writer to write to.
+     * @return A target writing to the writer.
+     */
+    static OutputTarget of(final Writer writer) {
+        return new OutputTarget() {
+
+            @Override
+            public void write(final char[] buffer, final int offset, final int length) throws IOException {
+                writer.write(buffer, offset, length);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                writer.flush();
+            }
+        };
+    }
+
+    /**
+     * Unmappable or malformed characters are replaced by the charset replacement,
+     * a surrogate pair split between two writes is encoded once its second half is received.
+     *
+     * @param channel Channel to write to.
+     * @param charset Charset to encode the characters.
+     * @return A target encoding the characters to the channel.
+     */
+    static OutputTarget of(final WritableByteChannel channel, final Charset charset) {
+        CharsetEncoder encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        ByteBuffer bytes = ByteBuffer.allocate(8192);
+        CharBuffer none = CharBuffer.allocate(0);
+        return new OutputTarget() {
+
+            /**
+             * High surrogate left by the previous write, waiting for its low surrogate.
+             */
+            private char leftover;
+
+            private boolean hasLeftover;
+
+            @Override
+            public void write(final char[] buffer, final int offset, final int length) throws IOException {
+                CharBuffer chars;
+                if (this.hasLeftover) {
+                    char[] joined = new char[length + 1];
+                    joined[0] = this.leftover;
+                    System.arraycopy(buffer, offset, joined, 1, length);
+                    chars = CharBuffer.wrap(joined);
+                    this.hasLeftover = false;
+                } else {
+                    chars = CharBuffer.wrap(buffer, offset, length);
+                }
+                this.encode(chars, false);
+                if (chars.hasRemaining()) {
+                    this.leftover = chars.get();
+                    this.hasLeftover = true;
+                }
+            }
+
+            /**
+             * Complete the encoding so stateful charsets write their trailing bytes, a pending high surrogate is kept for the next write.
+             */
+            @Override
+            public void flush() throws IOException {
+                this.end(none);
+            }
+
+            /**
+             * Complete the encoding, a pending high surrogate is written as malformed input.
+             */
+            @Override
+            public void finish() throws IOException {
+                if (this.hasLeftover) {
+                    this.hasLeftover = false;
+                    this.end(CharBuffer.wrap(new char[]{this.leftover}));
+                } else {
+                    this.end(none);
+                }
+            }
+
+            private void end(final CharBuffer chars) throws IOException {
+                this.encode(chars, true);
+                CoderResult result;
+                do {
+                    result = encoder.flush(bytes);
+                    this.writeBytes();
+                } while (result.isOverflow());
+                encoder.reset();
+            }
+
+            private void encode(final CharBuffer chars, final boolean endOfInput) throws IOException {
+                CoderResult result;
+                do {
+                    result = encoder.encode(chars, bytes, endOfInput);
+                    if (result.isError()) {
+                        result.throwException();
+                    }
+                    this.writeBytes();
+                } while (result.isOverflow());
+            }
+
+            private void writeBytes() throws IOException {
+                bytes.flip();
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                bytes.clear();
+            }
+        };
+    }
+
+    /**
+     * @param logger Logger to write to.
+     * @param level  Level of the logged lines.
+     * @return A target logging each complete line.
+     */
+    static OutputTarget of(final System.Logger logger, final System.Logger.Level level) {
+        StringBuilder line = new StringBuilder();
+        return new OutputTarget() {
+
+            @Override
+            public void write(final char[] buffer, final int offset, final int length) {
+                for (int i = offset; i < offset + length; i++) {
+                    char c = buffer[i];
+                    if (c == '\n') {
+                        logger.log(level, line.toString());
+                        line.setLength(0);
+                    } else if (c != '\r') {
+                        line.append(c);
+                    }
+                }
+            }
+
+            @Override
+            public void flush() {
+                // Incomplete lines are kept until their end is received.
+            }
+        };
+    }
+}
@@ -0,0 +1,379 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.output;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Script output writer never blocking on I/O, to use with ScriptInterpreter.setOutput.
+ * Written characters are copied in a lock free ring of preallocated slots, a background drainer thread copies them in batches to the target.
+ * Several threads can write at the same time, a write longer than a slot is split and can be interleaved with other writers output.
+ * When the ring is full, the overflow policy decides if the output is dropped, sampled, or if the writer waits.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class RingBufferOutput extends Writer {
+
+    private static final System.Logger LOGGER = System.getLogger(RingBufferOutput.class.getName());
+
+    /**
+     * Time the drainer sleeps when there is nothing to drain, in nanoseconds.
+     */
+    private static final long IDLE_NANOS = 1_000_000;
+
+    /**
+     * Time a blocked writer waits before trying again, in nanoseconds.
+     */
+    private static final long BLOCKED_NANOS = 50_000;
+
+    private final OutputTarget target;
+
+    private final OverflowPolicy policy;
+
+    private final int sampleRate;
+
+    private final int capacity;
+
+    private final int mask;
+
+    private final int slotSize;
+
+    private final char[][] slots;
+
+    private final int[] lengths;
+
+    /**
+     * Sequence of each slot, equal to the position of the next write when free, to the position + 1 when published.
+     */
+    private final AtomicLongArray sequences;
+
+    /**
+     * Next position to claim by a writer.
+     */
+    private final AtomicLong producer = new AtomicLong();
+
+    /**
+     * Next position to drain, only written by the drainer.
+     */
+    private volatile long consumer;
+
+    /**
+     * Position drained and flushed to the target, only written by the drainer.
+     */
+    private volatile long flushed;
+
+    private final AtomicLong sampleCounter = new AtomicLong();
+
+    private final LongAdder queued = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    private final char[] batch;
+
+    private final Thread drainer;
+
+    private volatile boolean sleeping;
+
+    private volatile boolean closed;
+
+    /**
+     * Create a new output and start its drainer thread.
+     *
+     * @param target     Destination of the output.
+     * @param slots      Number of slots in the ring, rounded up to a power of 2.
+     * @param slotSize   Maximum number of characters in a slot.
+     * @param policy     Behavior when the ring is full.
+     * @param sampleRate For the SAMPLE policy, one write out of this number is kept when the ring is almost full.
+     */
+    public RingBufferOutput(final OutputTarget target, final int slots, final int slotSize, final OverflowPolicy policy, final int sampleRate) {
+        super();
+        if (slots <= 0 || slotSize <= 0 || sampleRate <= 0) {
+            throw new IllegalArgumentException("Slots, slot size and sample rate must be positive.");
+        }
+        this.target = Objects.requireNonNull(target);
+        this.policy = Objects.requireNonNull(policy);
+        this.sampleRate = sampleRate;
+        this.capacity = slots == 1 ? 1 : Integer.highestOneBit(slots - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.slotSize = slotSize;
+        this.slots = new char[this.capacity][slotSize];
+        this.lengths = new int[this.capacity];
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            this.sequences.set(i, i);
+        }
+        this.batch = new char[Math.max(8192, slotSize)];
+        this.drainer = Thread.ofPlatform().daemon().name("script-output").start(this::drain);
+    }
+
+    /**
+     * Create a new output dropping the output when full.
+     *
+     * @param target Destination of the output.
+     */
+    public RingBufferOutput(final OutputTarget target) {
+        this(target, 1024, 256, OverflowPolicy.DROP, 1);
+    }
+
+    @Override
+    public void write(final char[] buffer, final int offset, final int length) {
+        Objects.checkFromIndexSize(offset, length, buffer.length);
+        if (this.closed || !this.sampled()) {
+            this.dropped.add(length);
+            return;
+        }
+        int written = 0;
+        while (written < length) {
+            long position = this.claim();
+            if (position < 0) {
+                this.dropped.add(length - written);
+                return;
+            }
+            int index = (int) (position & this.mask);
+            int count = Math.min(this.slotSize, length - written);
+            System.arraycopy(buffer, offset + written, this.slots[index], 0, count);
+            this.publish(position, index, count);
+            written += count;
+        }
+    }
+
+    @Override
+    public void write(final String value, final int offset, final int length) {
+        Objects.checkFromIndexSize(offset, length, value.length());
+        if (this.closed || !this.sampled()) {
+            this.dropped.add(length);
+            return;
+        }
+        int written = 0;
+        while (written < length) {
+            long position = this.claim();
+            if (position < 0) {
+                this.dropped.add(length - written);
+                return;
+            }
+            int index = (int) (position & this.mask);
+            int count = Math.min(this.slotSize, length - written);
+            value.getChars(offset + written, offset + written + count, this.slots[index], 0);
+            this.publish(position, index, count);
+            written += count;
+        }
+    }
+
+    @Override
+    public void write(final String value) {
+        this.write(value, 0, value.length());
+    }
+
+    @Override
+    public void write(final int c) {
+        if (this.closed || !this.sampled()) {
+            this.dropped.increment();
+            return;
+        }
+        long position = this.claim();
+        if (position < 0) {
+            this.dropped.increment();
+            return;
+        }
+        int index = (int) (position & this.mask);
+        this.slots[index][0] = (char) c;
+        this.publish(position, index, 1);
+    }
+
+    /**
+     * Wait until everything written before this call was given to the target and the target flushed.
+     */
+    @Override
+    public void flush() {
+        long position = this.producer.get();
+        while (this.flushed < position && this.drainer.isAlive()) {
+            LockSupport.unpark(this.drainer);
+            LockSupport.parkNanos(BLOCKED_NANOS);
+        }
+    }
+
+    /**
+     * Drain the remaining output, finish the target and stop the drainer thread, the target is not closed.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        LockSupport.unpark(this.drainer);
+        try {
+            this.drainer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return The number of characters accepted in the buffer since the creation.
+     */
+    public long getQueuedChars() {
+        return this.queued.sum();
+    }
+
+    /**
+     * @return The number of characters dropped since the creation.
+     */
+    public long getDroppedChars() {
+        return this.dropped.sum();
+    }
+
+    /**
+     * @return The number of slots waiting to be drained.
+     */
+    public long getPendingSlots() {
+        return this.producer.get() - this.consumer;
+    }
+
+    /**
+     * @return The number of failed writes to the target.
+     */
+    public long getErrors() {
+        return this.errors.sum();
+    }
+
+    private boolean sampled() {
+        if (this.policy != OverflowPolicy.SAMPLE || this.getPendingSlots() * 4 < this.capacity * 3L) {
+            return true;
+        }
+        return this.sampleCounter.getAndIncrement() % this.sampleRate == 0;
+    }
+
+    /**
+     * Claim the next free slot.
+     *
+     * @return The claimed position, -1 if the ring is full and the policy does not allow to wait.
+     */
+    private long claim() {
+        while (true) {
+            long position = this.producer.get();
+            long sequence = this.sequences.get((int) (position & this.mask));
+            if (sequence == position) {
+                if (this.producer.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+            } else if (sequence < position) {
+                if (this.policy != OverflowPolicy.BLOCK || this.closed) {
+                    return -1;
+                }
+                LockSupport.unpark(this.drainer);
+                LockSupport.parkNanos(BLOCKED_NANOS);
+            }
+        }
+    }
+
+    private void publish(final long position, final int index, final int count) {
+        this.lengths[index] = count;
+        this.sequences.set(index, position + 1);
+        this.queued.add(count);
+        if (this.sleeping) {
+            LockSupport.unpark(this.drainer);
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            boolean stopping = this.closed;
+            int drained = this.drainBatch();
+            if (drained == 0) {
+                if (stopping) {
+                    this.finishTarget();
+                    this.flushed = this.consumer;
+                    return;
+                }
+                this.flushTarget();
+                this.flushed = this.consumer;
+                this.sleeping = true;
+                if (this.sequences.get((int) (this.consumer & this.mask)) != this.consumer + 1) {
+                    LockSupport.parkNanos(IDLE_NANOS);
+                }
+                this.sleeping = false;
+            }
+        }
+    }
+
+    /**
+     * Copy the published slots in the batch buffer, and write it to the target.
+     *
+     * @return The number of drained characters.
+     */
+    private int drainBatch() {
+        int size = 0;
+        long position = this.consumer;
+        while (true) {
+            int index = (int) (position & this.mask);
+            if (this.sequences.get(index) != position + 1) {
+                break;
+            }
+            int length = this.lengths[index];
+            if (size + length > this.batch.length) {
+                break;
+            }
+            System.arraycopy(this.slots[index], 0, this.batch, size, length);
+            size += length;
+            this.sequences.set(index, position + this.capacity);
+            position++;
+        }
+        if (size > 0) {
+            try {
+                this.target.write(this.batch, 0, size);
+            } catch (IOException | RuntimeException e) {
+                this.errors.increment();
+                LOGGER.log(System.Logger.Level.WARNING, "Error writing script output", e);
+            }
+        }
+        this.consumer = position;
+        return size;
+    }
+
+    private void flushTarget() {
+        try {
+            this.target.flush();
+        } catch (IOException | RuntimeException e) {
+            this.errors.increment();
+            LOGGER.log(System.Logger.Level.WARNING, "Error flushing script output", e);
+        }
+    }
+
+    private void finishTarget() {
+        try {
+            this.target.finish();
+        } catch (IOException | RuntimeException e) {
+            this.errors.increment();
+            LOGGER.log(System.Logger.Level.WARNING, "Error finishing script output", e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.pool;
+
+/**
+ * Snapshot of the counters of an interpreter pool.
+ *
+ * @param borrowed        Number of successful borrows.
+ * @param waited          Number of borrows that found no idle interpreter and had to wait.
+ * @param timeouts        Number of borrows that failed because no interpreter became available in time.
+ * @param replaced        Number of closed interpreters replaced by a new one.
+ * @param meanBorrowNanos Mean time to obtain an interpreter, in nanoseconds.
+ * @param maxBorrowNanos  Longest time to obtain an interpreter, in nanoseconds.
+ * @param inUse           Number of interpreters currently borrowed.
+ * @param peakInUse       Highest number of interpreters borrowed at the same time.
+ * @param size            Number of interpreters in the pool.
+ * @author Grégory Van den Borre
+ */
+public record PoolStatistics(long borrowed, long waited, long timeouts, long replaced, long meanBorrowNanos, long maxBorrowNanos, int inUse, int peakInUse, int size) {
+
+    /**
+     * @return The ratio of borrows that had to wait or timed out, 0 if no borrow was made.
+     */
+    public double saturation() {
+        long total = this.borrowed + this.timeouts;
+        return total == 0 ? 0 : (double) this.waited / total;
+    }
+}
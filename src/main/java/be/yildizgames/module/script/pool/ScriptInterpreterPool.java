@@ -0,0 +1,334 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.pool;
+
+import be.yildizgames.module.script.ScriptException;
+import be.yildizgames.module.script.ScriptInterpreter;
+import be.yildizgames.module.script.ScriptInterpreterProvider;
+import be.yildizgames.module.script.ScriptInterpreterProviders;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Fixed size pool of script interpreters.
+ * An interpreter is stateful and must only be used by one thread at a time, the pool gives each borrower an exclusive interpreter.
+ * All the interpreters are created and initialized when the pool is built, so the first borrowers do not pay the startup cost.
+ * An interpreter found closed when borrowed or returned is replaced by a new one.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class ScriptInterpreterPool implements AutoCloseable {
+
+    /**
+     * Provider used to build the interpreters.
+     */
+    private final ScriptInterpreterProvider provider;
+
+    /**
+     * Initialization applied to every new interpreter.
+     */
+    private final Consumer<ScriptInterpreter> initializer;
+
+    /**
+     * Interpreters available to borrow.
+     */
+    private final BlockingQueue<ScriptInterpreter> idle;
+
+    private final int size;
+
+    private final LongAdder borrowed = new LongAdder();
+
+    private final LongAdder waited = new LongAdder();
+
+    private final LongAdder timeouts = new LongAdder();
+
+    private final LongAdder replaced = new LongAdder();
+
+    private final LongAdder borrowTime = new LongAdder();
+
+    private final LongAccumulator maxBorrowTime = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Borrowed interpreters, compared by identity, guarded by itself.
+     */
+    private final Set<ScriptInterpreter> leased = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private final AtomicInteger inUse = new AtomicInteger();
+
+    private final LongAccumulator peakInUse = new LongAccumulator(Math::max, 0);
+
+    private volatile boolean closed;
+
+    /**
+     * Create a new pool.
+     *
+     * @param provider Provider used to build the interpreters.
+     * @param size     Number of interpreters in the pool.
+     */
+    public ScriptInterpreterPool(final ScriptInterpreterProvider provider, final int size) {
+        this(provider, size, i -> {
+        });
+    }
+
+    /**
+     * Create a new pool.
+     *
+     * @param provider    Provider used to build the interpreters.
+     * @param size        Number of interpreters in the pool.
+     * @param initializer Warm up logic executed on every new interpreter, for example to load common scripts.
+     */
+    public ScriptInterpreterPool(final ScriptInterpreterProvider provider, final int size, final Consumer<ScriptInterpreter> initializer) {
+        super();
+        if (size <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive: " + size);
+        }
+        this.provider = Objects.requireNonNull(provider);
+        this.initializer = Objects.requireNonNull(initializer);
+        this.size = size;
+        this.idle = new ArrayBlockingQueue<>(size);
+        for (int i = 0; i < size; i++) {
+            this.idle.add(this.create());
+        }
+    }
+
+    /**
+     * Create a pool from the default provider discovered on the module path.
+     *
+     * @param size Number of interpreters in the pool.
+     * @return The created pool.
+     */
+    public static ScriptInterpreterPool fromDiscoveredProvider(final int size) {
+        return new ScriptInterpreterPool(ScriptInterpreterProviders.getDefault(), size);
+    }
+
+    /**
+     * Borrow an interpreter, it must be given back with release once used.
+     *
+     * @param timeout Maximum time to wait for an interpreter to be available.
+     * @return An interpreter for the exclusive use of the caller.
+     * @throws ScriptException If no interpreter was available before the timeout, or if the pool is closed.
+     */
+    public ScriptInterpreter borrow(final Duration timeout) throws ScriptException {
+        if (this.closed) {
+            throw new ScriptException("Interpreter pool is closed.");
+        }
+        long start = System.nanoTime();
+        ScriptInterpreter interpreter = this.idle.poll();
+        if (interpreter == null) {
+            this.waited.increment();
+            try {
+                interpreter = this.idle.poll(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ScriptException(e);
+            }
+            if (interpreter == null) {
+                this.timeouts.increment();
+                throw new ScriptException("No interpreter available after " + timeout.toMillis() + "ms.");
+            }
+        }
+        if (interpreter.isClosed()) {
+            interpreter = this.replaceOrKeepSlot(interpreter);
+        }
+        synchronized (this.leased) {
+            this.leased.add(interpreter);
+        }
+        long elapsed = System.nanoTime() - start;
+        this.borrowed.increment();
+        this.borrowTime.add(elapsed);
+        this.maxBorrowTime.accumulate(elapsed);
+        this.peakInUse.accumulate(this.inUse.incrementAndGet());
+        return interpreter;
+    }
+
+    /**
+     * Give back a borrowed interpreter to the pool.
+     *
+     * @param interpreter Interpreter to give back.
+     * @throws IllegalArgumentException If the interpreter was not borrowed from this pool, or was already given back.
+     */
+    public void release(final ScriptInterpreter interpreter) {
+        synchronized (this.leased) {
+            if (!this.leased.remove(interpreter)) {
+                throw new IllegalArgumentException("Interpreter not borrowed from this pool or already released.");
+            }
+        }
+        if (this.closed) {
+            this.inUse.decrementAndGet();
+            closeQuietly(interpreter);
+            return;
+        }
+        ScriptInterpreter available = interpreter;
+        if (interpreter.isClosed()) {
+            try {
+                available = this.create();
+                this.replaced.increment();
+            } catch (RuntimeException e) {
+                // Keep the slot, the replacement is tried again on the next borrow.
+                this.inUse.decrementAndGet();
+                this.idle.add(interpreter);
+                throw e;
+            }
+        }
+        // Decremented once the slot is refilled, and before it is given back so the peak never exceeds the size.
+        this.inUse.decrementAndGet();
+        this.idle.add(available);
+        if (this.closed) {
+            this.closeIdle();
+        }
+    }
+
+    /**
+     * Borrow an interpreter for a try-with-resources block, the interpreter is given back when the lease is closed.
+     *
+     * @param timeout Maximum time to wait for an interpreter to be available.
+     * @return The lease holding the borrowed interpreter.
+     * @throws ScriptException If no interpreter was available before the timeout, or if the pool is closed.
+     */
+    public Lease checkout(final Duration timeout) throws ScriptException {
+        return new Lease(this, this.borrow(timeout));
+    }
+
+    /**
+     * @return The number of interpreters in the pool.
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * @return A snapshot of the pool counters.
+     */
+    public PoolStatistics getStatistics() {
+        long count = this.borrowed.sum();
+        return new PoolStatistics(
+                count,
+                this.waited.sum(),
+                this.timeouts.sum(),
+                this.replaced.sum(),
+                count == 0 ? 0 : this.borrowTime.sum() / count,
+                this.maxBorrowTime.get(),
+                this.inUse.get(),
+                (int) this.peakInUse.get(),
+                this.size);
+    }
+
+    /**
+     * Close the pool and all its idle interpreters, borrowed interpreters are closed when given back.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        this.closeIdle();
+    }
+
+    private void closeIdle() {
+        List<ScriptInterpreter> toClose = new ArrayList<>(this.size);
+        this.idle.drainTo(toClose);
+        toClose.forEach(ScriptInterpreterPool::closeQuietly);
+    }
+
+    /**
+     * Replace a closed interpreter, if the creation fails the closed interpreter is put back in the idle queue
+     * so the slot is not lost, the replacement is tried again on the next borrow.
+     *
+     * @param closedInterpreter Interpreter to replace.
+     * @return The new interpreter.
+     */
+    private ScriptInterpreter replaceOrKeepSlot(final ScriptInterpreter closedInterpreter) {
+        try {
+            ScriptInterpreter interpreter = this.create();
+            this.replaced.increment();
+            return interpreter;
+        } catch (RuntimeException e) {
+            this.idle.add(closedInterpreter);
+            throw e;
+        }
+    }
+
+    private ScriptInterpreter create() {
+        ScriptInterpreter interpreter = this.provider.getInterpreter();
+        this.initializer.accept(interpreter);
+        return interpreter;
+    }
+
+    private static void closeQuietly(final ScriptInterpreter interpreter) {
+        try {
+            interpreter.close();
+        } catch (Exception e) {
+            System.getLogger(ScriptInterpreterPool.class.getName()).log(System.Logger.Level.WARNING, "Error closing interpreter", e);
+        }
+    }
+
+    /**
+     * Interpreter borrowed from the pool, to use in a try-with-resources block.
+     */
+    public static final class Lease implements AutoCloseable {
+
+        private final ScriptInterpreterPool pool;
+
+        private final ScriptInterpreter interpreter;
+
+        private boolean released;
+
+        private Lease(final ScriptInterpreterPool pool, final ScriptInterpreter interpreter) {
+            super();
+            this.pool = pool;
+            this.interpreter = interpreter;
+        }
+
+        /**
+         * @return The borrowed interpreter.
+         */
+        public ScriptInterpreter getInterpreter() {
+            return this.interpreter;
+        }
+
+        /**
+         * Give the interpreter back to the pool.
+         */
+        @Override
+        public void close() {
+            if (!this.released) {
+                this.released = true;
+                this.pool.release(this.interpreter);
+            }
+        }
+    }
+}
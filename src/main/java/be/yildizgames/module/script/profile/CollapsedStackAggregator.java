@@ -0,0 +1,209 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.profile;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aggregate the profiler events in collapsed stacks, the input format of the flame graph tools: one "outer;inner;function value" line per stack.
+ * The sampled stacks are weighted by their number of samples, the traced stacks by their self time in nanoseconds.
+ * The call stacks are rebuilt from the enter and exit events, they are reset when events of a thread were lost.
+ * Optionally, a JFR event is emitted for every aggregated call and sample, with the collapsed stack as field.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class CollapsedStackAggregator implements ProfileEventListener {
+
+    private final Map<String, Long> sampled = new HashMap<>();
+
+    private final Map<String, Long> traced = new HashMap<>();
+
+    /**
+     * Call stack being rebuilt for each thread.
+     */
+    private final Map<Long, Deque<Frame>> stacks = new HashMap<>();
+
+    private final boolean emitJfr;
+
+    /**
+     * Create an aggregator not emitting JFR events.
+     */
+    public CollapsedStackAggregator() {
+        this(false);
+    }
+
+    /**
+     * Create an aggregator.
+     *
+     * @param emitJfr True to emit a JFR event for every call and sample, when the events are enabled in the recording.
+     */
+    public CollapsedStackAggregator(final boolean emitJfr) {
+        super();
+        this.emitJfr = emitJfr;
+    }
+
+    @Override
+    public void onEnter(final long thread, final String function, final long nanos) {
+        Deque<Frame> stack = this.stacks.computeIfAbsent(thread, t -> new ArrayDeque<>());
+        Frame parent = stack.peek();
+        stack.push(new Frame(parent == null ? function : parent.path + ";" + function, function, nanos));
+    }
+
+    @Override
+    public void onExit(final long thread, final String function, final long nanos) {
+        Deque<Frame> stack = this.stacks.get(thread);
+        if (stack == null || stack.isEmpty()) {
+            return;
+        }
+        if (!stack.peek().function.equals(function)) {
+            stack.clear();
+            return;
+        }
+        Frame frame = stack.pop();
+        long duration = nanos - frame.start;
+        long self = duration - frame.children;
+        this.traced.merge(frame.path, self, Long::sum);
+        Frame parent = stack.peek();
+        if (parent != null) {
+            parent.children += duration;
+        }
+        if (this.emitJfr) {
+            ScriptFunctionEvent event = new ScriptFunctionEvent();
+            if (event.shouldCommit()) {
+                event.thread = thread;
+                event.stack = frame.path;
+                event.callDuration = duration;
+                event.selfTime = self;
+                event.commit();
+            }
+        }
+    }
+
+    @Override
+    public void onSample(final long thread, final String[] stack, final long nanos) {
+        String path = String.join(";", stack);
+        this.sampled.merge(path, 1L, Long::sum);
+        if (this.emitJfr) {
+            ScriptSampleEvent event = new ScriptSampleEvent();
+            if (event.shouldCommit()) {
+                event.thread = thread;
+                event.stack = path;
+                event.commit();
+            }
+        }
+    }
+
+    @Override
+    public void onLost(final long thread, final long events) {
+        Deque<Frame> stack = this.stacks.get(thread);
+        if (stack != null) {
+            stack.clear();
+        }
+    }
+
+    /**
+     * @return The number of samples per collapsed stack, sorted by stack.
+     */
+    public Map<String, Long> getSampledStacks() {
+        return Collections.unmodifiableMap(new TreeMap<>(this.sampled));
+    }
+
+    /**
+     * @return The self time in nanoseconds per collapsed stack, sorted by stack.
+     */
+    public Map<String, Long> getTracedStacks() {
+        return Collections.unmodifiableMap(new TreeMap<>(this.traced));
+    }
+
+    /**
+     * Write the sampled stacks in the collapsed format.
+     *
+     * @param writer Destination.
+     * @throws IOException If the writing fails.
+     */
+    public void writeSampledStacks(final Writer writer) throws IOException {
+        write(this.getSampledStacks(), writer);
+    }
+
+    /**
+     * Write the traced stacks in the collapsed format, weighted by self time in nanoseconds.
+     *
+     * @param writer Destination.
+     * @throws IOException If the writing fails.
+     */
+    public void writeTracedStacks(final Writer writer) throws IOException {
+        write(this.getTracedStacks(), writer);
+    }
+
+    /**
+     * Forget the aggregated stacks, the call stacks being rebuilt are kept.
+     */
+    public void reset() {
+        this.sampled.clear();
+        this.traced.clear();
+    }
+
+    private static void write(final Map<String, Long> stacks, final Writer writer) throws IOException {
+        for (Map.Entry<String, Long> entry : stacks.entrySet()) {
+            writer.write(entry.getKey());
+            writer.write(' ');
+            writer.write(Long.toString(entry.getValue()));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    /**
+     * Function call in progress.
+     */
+    private static final class Frame {
+
+        private final String path;
+
+        private final String function;
+
+        private final long start;
+
+        /**
+         * Total duration of the completed calls made by this one.
+         */
+        private long children;
+
+        private Frame(final String path, final String function, final long start) {
+            super();
+            this.path = path;
+            this.function = function;
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.profile;
+
+/**
+ * Receive the events recorded by a profiler when it is drained.
+ *
+ * @author Grégory Van den Borre
+ */
+public interface ProfileEventListener {
+
+    /**
+     * A script function started.
+     *
+     * @param thread   Id of the thread running the function.
+     * @param function Function name.
+     * @param nanos    System.nanoTime of the event.
+     */
+    void onEnter(long thread, String function, long nanos);
+
+    /**
+     * A script function ended.
+     *
+     * @param thread   Id of the thread running the function.
+     * @param function Function name.
+     * @param nanos    System.nanoTime of the event.
+     */
+    void onExit(long thread, String function, long nanos);
+
+    /**
+     * A sample of the script call stack was taken.
+     *
+     * @param thread Id of the sampled thread.
+     * @param stack  Function names, from the outermost to the innermost.
+     * @param nanos  System.nanoTime of the event.
+     */
+    void onSample(long thread, String[] stack, long nanos);
+
+    /**
+     * Events were overwritten in the ring of a thread before being drained.
+     * This implementation does nothing.
+     *
+     * @param thread Id of the thread.
+     * @param events Number of lost events.
+     */
+    default void onLost(final long thread, final long events) {
+        // Nothing to do.
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.profile;
+
+/**
+ * Receive the execution events of the scripts, providers call it on every script function enter and exit, and at their sampling points.
+ * The interpreters use DISABLED until a hook is set, its empty methods are inlined by the JIT so the calls cost nothing when profiling is off.
+ *
+ * @author Grégory Van den Borre
+ */
+public interface ProfilingHook {
+
+    /**
+     * Hook ignoring all the events.
+     */
+    ProfilingHook DISABLED = new ProfilingHook() {
+
+        @Override
+        public void enter(final String function) {
+            // Profiling disabled.
+        }
+
+        @Override
+        public void exit(final String function) {
+            // Profiling disabled.
+        }
+
+        @Override
+        public void sample() {
+            // Profiling disabled.
+        }
+    };
+
+    /**
+     * Called when a script function starts.
+     *
+     * @param function Function name.
+     */
+    void enter(String function);
+
+    /**
+     * Called when a script function ends, normally or with an error.
+     *
+     * @param function Function name.
+     */
+    void exit(String function);
+
+    /**
+     * Called at a sampling point, as a loop back edge or an execution monitor checkpoint.
+     */
+    void sample();
+}
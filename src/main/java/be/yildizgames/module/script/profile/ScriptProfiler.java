@@ -0,0 +1,203 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.profile;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Profiling hook recording the script events in a preallocated ring per thread.
+ * Function enter and exit are recorded when tracing is on, and one sample of the call stack is recorded every sample interval sampling points.
+ * When disabled, the calls only read a volatile field, the hook can also be removed from the interpreter for no cost at all.
+ * The rings are read with drain, a thread producing more events than its ring size between two drains loses the oldest ones.
+ * Each recorded thread costs two arrays of ring size longs, 16 bytes per event, kept until the thread is over and drained.
+ * With virtual threads every task gets its own ring, so the number of recorded threads is bounded,
+ * the threads started once the bound is reached are not recorded and only counted.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class ScriptProfiler implements ProfilingHook {
+
+    private final FunctionNames names = new FunctionNames();
+
+    private final List<ThreadRecorder> recorders = new CopyOnWriteArrayList<>();
+
+    /**
+     * Recorder of the current thread, null if the thread is not recorded.
+     */
+    private final ThreadLocal<ThreadRecorder> recorder;
+
+    private final int capacity;
+
+    private final int maxThreads;
+
+    /**
+     * Number of recorders created and not yet released.
+     */
+    private final AtomicInteger threads = new AtomicInteger();
+
+    private final LongAdder untracked = new LongAdder();
+
+    private volatile boolean enabled = true;
+
+    private volatile boolean tracing = true;
+
+    private volatile int sampleInterval;
+
+    /**
+     * Create a new profiler recording at most 256 threads at the same time.
+     *
+     * @param ringSize       Number of events kept per thread, rounded up to a power of two.
+     * @param sampleInterval Number of sampling points between two samples, 0 to disable the sampling.
+     */
+    public ScriptProfiler(final int ringSize, final int sampleInterval) {
+        this(ringSize, sampleInterval, 256);
+    }
+
+    /**
+     * Create a new profiler.
+     *
+     * @param ringSize       Number of events kept per thread, rounded up to a power of two.
+     * @param sampleInterval Number of sampling points between two samples, 0 to disable the sampling.
+     * @param maxThreads     Maximum number of threads recorded and not yet released by a drain.
+     */
+    public ScriptProfiler(final int ringSize, final int sampleInterval, final int maxThreads) {
+        super();
+        if (ringSize < 2) {
+            throw new IllegalArgumentException("Ring size must be at least 2: " + ringSize);
+        }
+        if (maxThreads <= 0) {
+            throw new IllegalArgumentException("Maximum threads must be positive: " + maxThreads);
+        }
+        this.capacity = Integer.highestOneBit(ringSize - 1) << 1;
+        this.maxThreads = maxThreads;
+        this.setSampleInterval(sampleInterval);
+        this.recorder = ThreadLocal.withInitial(this::createRecorder);
+    }
+
+    @Override
+    public void enter(final String function) {
+        if (this.enabled) {
+            ThreadRecorder r = this.recorder.get();
+            if (r != null) {
+                r.enter(this.names.idOf(function), this.tracing);
+            }
+        }
+    }
+
+    @Override
+    public void exit(final String function) {
+        if (this.enabled) {
+            ThreadRecorder r = this.recorder.get();
+            if (r != null) {
+                r.exit(this.names.idOf(function), this.tracing);
+            }
+        }
+    }
+
+    @Override
+    public void sample() {
+        if (this.enabled) {
+            ThreadRecorder r = this.recorder.get();
+            if (r != null) {
+                r.sample(this.sampleInterval);
+            }
+        }
+    }
+
+    /**
+     * Enable or disable the recording, the call stacks tracked while disabled are not updated.
+     *
+     * @param enabled True to record.
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return True if the events are recorded.
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Enable or disable the recording of the function enter and exit, the call stacks used by the samples are still tracked.
+     *
+     * @param tracing True to record the enter and exit events.
+     */
+    public void setTracing(final boolean tracing) {
+        this.tracing = tracing;
+    }
+
+    /**
+     * Change the sampling rate, can be called while profiling.
+     *
+     * @param interval Number of sampling points between two samples, 0 to disable the sampling.
+     */
+    public void setSampleInterval(final int interval) {
+        if (interval < 0) {
+            throw new IllegalArgumentException("Sample interval cannot be negative: " + interval);
+        }
+        this.sampleInterval = interval;
+    }
+
+    /**
+     * Send the events recorded since the previous drain to a listener, in order for each thread.
+     * The recorders of the finished threads are released once drained.
+     *
+     * @param listener Listener receiving the events.
+     */
+    public synchronized void drain(final ProfileEventListener listener) {
+        for (ThreadRecorder r : this.recorders) {
+            r.drain(listener, this.names);
+            if (r.isFinished()) {
+                this.recorders.remove(r);
+                this.threads.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @return The number of threads not recorded because the maximum was reached.
+     */
+    public long getUntrackedThreads() {
+        return this.untracked.sum();
+    }
+
+    private ThreadRecorder createRecorder() {
+        if (this.threads.incrementAndGet() > this.maxThreads) {
+            this.threads.decrementAndGet();
+            this.untracked.increment();
+            return null;
+        }
+        ThreadRecorder r = new ThreadRecorder(Thread.currentThread(), this.capacity);
+        this.recorders.add(r);
+        return r;
+    }
+}
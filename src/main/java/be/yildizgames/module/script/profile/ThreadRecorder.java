@@ -0,0 +1,205 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.profile;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ring of the events of one thread, preallocated so recording does not allocate.
+ * Only the owner thread writes, the draining thread reads the events behind the write index and drops those overwritten meanwhile.
+ * The slot shared by the oldest event and the one being written is never read, so a full ring keeps its capacity minus one events.
+ *
+ * @author Grégory Van den Borre
+ */
+final class ThreadRecorder {
+
+    static final int ENTER = 1;
+
+    static final int EXIT = 2;
+
+    static final int SAMPLE = 3;
+
+    static final int FRAME = 4;
+
+    /**
+     * Maximum depth of the tracked call stack, deeper frames are counted but not recorded in the samples.
+     */
+    private static final int MAX_DEPTH = 256;
+
+    final long threadId;
+
+    /**
+     * Kind in the high 32 bits, function id or sample depth in the low ones.
+     */
+    private final long[] events;
+
+    private final long[] times;
+
+    private final int mask;
+
+    /**
+     * Number of events written since the creation.
+     */
+    private final AtomicLong written = new AtomicLong();
+
+    private final int[] stack = new int[MAX_DEPTH];
+
+    private final Thread thread;
+
+    private int depth;
+
+    private int sampleCountdown;
+
+    /**
+     * Number of events read, used by the draining thread only.
+     */
+    private long read;
+
+    ThreadRecorder(final Thread thread, final int capacity) {
+        super();
+        this.thread = thread;
+        this.threadId = thread.threadId();
+        this.events = new long[capacity];
+        this.times = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    void enter(final int function, final boolean tracing) {
+        if (this.depth < MAX_DEPTH) {
+            this.stack[this.depth] = function;
+        }
+        this.depth++;
+        if (tracing) {
+            this.write(ENTER, function, System.nanoTime());
+        }
+    }
+
+    void exit(final int function, final boolean tracing) {
+        if (this.depth > 0) {
+            this.depth--;
+        }
+        if (tracing) {
+            this.write(EXIT, function, System.nanoTime());
+        }
+    }
+
+    void sample(final int interval) {
+        if (interval <= 0 || --this.sampleCountdown > 0) {
+            return;
+        }
+        this.sampleCountdown = interval;
+        int recorded = Math.min(this.depth, Math.min(MAX_DEPTH, this.events.length - 1));
+        long now = System.nanoTime();
+        this.write(SAMPLE, recorded, now);
+        for (int i = 0; i < recorded; i++) {
+            this.write(FRAME, this.stack[i], now);
+        }
+    }
+
+    /**
+     * @return True if the thread is over and all its events were read.
+     */
+    boolean isFinished() {
+        return !this.thread.isAlive() && this.read == this.written.get();
+    }
+
+    /**
+     * Send the unread events to a listener.
+     *
+     * @param listener Listener receiving the events.
+     * @param names    Function names by id.
+     */
+    void drain(final ProfileEventListener listener, final FunctionNames names) {
+        long end = this.written.get();
+        long start = Math.max(this.read, end - this.events.length + 1);
+        if (start > this.read) {
+            listener.onLost(this.threadId, start - this.read);
+        }
+        long position = start;
+        while (position < end) {
+            int index = (int) position & this.mask;
+            long event = this.events[index];
+            long time = this.times[index];
+            int kind = (int) (event >>> 32);
+            int value = (int) event;
+            if (kind == SAMPLE) {
+                if (position + value >= end) {
+                    break;
+                }
+                String[] stack = new String[value];
+                for (int i = 0; i < value; i++) {
+                    stack[i] = names.get((int) this.events[(int) (position + 1 + i) & this.mask]);
+                }
+                if (this.isOverwritten(position)) {
+                    position = this.lapped(listener, position);
+                    continue;
+                }
+                listener.onSample(this.threadId, stack, time);
+                position += value + 1;
+                continue;
+            }
+            if (this.isOverwritten(position)) {
+                position = this.lapped(listener, position);
+                continue;
+            }
+            if (kind == ENTER) {
+                listener.onEnter(this.threadId, names.get(value), time);
+            } else if (kind == EXIT) {
+                listener.onExit(this.threadId, names.get(value), time);
+            }
+            position++;
+        }
+        this.read = position;
+    }
+
+    /**
+     * Check if the event at a position may have been overwritten while it was read,
+     * the slot being written is already lost when it is the one of the position.
+     *
+     * @param position Position of the read event.
+     * @return True if the read values cannot be trusted.
+     */
+    private boolean isOverwritten(final long position) {
+        // The plain array reads must not be reordered after the new read of the write index.
+        VarHandle.loadLoadFence();
+        return this.written.get() - this.events.length >= position;
+    }
+
+    private long lapped(final ProfileEventListener listener, final long position) {
+        long restart = this.written.get() - this.events.length + 1;
+        listener.onLost(this.threadId, restart - position);
+        return restart;
+    }
+
+    private void write(final int kind, final int value, final long time) {
+        long position = this.written.get();
+        int index = (int) position & this.mask;
+        this.events[index] = ((long) kind << 32) | (value & 0xFFFFFFFFL);
+        this.times[index] = time;
+        this.written.lazySet(position + 1);
+    }
+}
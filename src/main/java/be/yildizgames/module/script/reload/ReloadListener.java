@@ -0,0 +1,53 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.reload;
+
+import be.yildizgames.module.script.ScriptException;
+
+/**
+ * Notified of the reloads done by a script watcher, called from the watcher thread.
+ *
+ * @author Grégory Van den Borre
+ */
+public interface ReloadListener {
+
+    /**
+     * A script was parsed again successfully, its handle now runs the new version.
+     *
+     * @param handle Reloaded script.
+     */
+    default void onReloaded(final ScriptHandle handle) {
+        // Does nothing.
+    }
+
+    /**
+     * A script could not be parsed again, its handle keeps running the previous version.
+     *
+     * @param handle Script that failed to reload.
+     * @param error  Parsing error.
+     */
+    void onReloadFailed(ScriptHandle handle, ScriptException error);
+}
@@ -0,0 +1,102 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.reload;
+
+import be.yildizgames.module.script.ArgumentFrame;
+import be.yildizgames.module.script.BatchInput;
+import be.yildizgames.module.script.BatchOutput;
+import be.yildizgames.module.script.ExecutionMonitor;
+import be.yildizgames.module.script.ParsedScript;
+
+import java.nio.file.Path;
+
+/**
+ * Stable reference to the latest parsed version of a watched script file.
+ * Running the handle runs the current version holding the interpreter lease of the watcher, a reload replaces it atomically.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class ScriptHandle implements ParsedScript {
+
+    private final ScriptWatcher watcher;
+
+    private final Path file;
+
+    private volatile ParsedScript current;
+
+    private volatile int version;
+
+    ScriptHandle(final ScriptWatcher watcher, final Path file, final ParsedScript initial) {
+        super();
+        this.watcher = watcher;
+        this.file = file;
+        this.current = initial;
+    }
+
+    @Override
+    public void run() {
+        this.watcher.runLeased(() -> this.current.run());
+    }
+
+    @Override
+    public void run(final ExecutionMonitor monitor) {
+        this.watcher.runLeased(() -> this.current.run(monitor));
+    }
+
+    @Override
+    public void run(final ArgumentFrame frame) {
+        this.watcher.runLeased(() -> this.current.run(frame));
+    }
+
+    @Override
+    public void runBatch(final BatchInput input, final BatchOutput output, final int from, final int to, final ArgumentFrame frame) {
+        this.watcher.runLeased(() -> this.current.runBatch(input, output, from, to, frame));
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return this.current.isThreadSafe();
+    }
+
+    /**
+     * @return The watched file.
+     */
+    public Path getFile() {
+        return this.file;
+    }
+
+    /**
+     * @return The number of successful reloads.
+     */
+    public int getVersion() {
+        return this.version;
+    }
+
+    void swap(final ParsedScript script) {
+        this.current = script;
+        this.version++;
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.reload;
+
+import be.yildizgames.module.script.ParsedScript;
+import be.yildizgames.module.script.ScriptException;
+import be.yildizgames.module.script.ScriptInterpreter;
+import be.yildizgames.module.script.ScriptInterpreterProvider;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Watch a script directory tree and parse the registered scripts again when their file changes.
+ * Events are coalesced: a file is only parsed once no new event was received for it during the debounce delay,
+ * so an editor writing a file in several steps triggers a single reload.
+ * The watcher builds its own interpreter from the provider, and uses it one thread at a time as the interpreters require:
+ * the reloads parse on the watcher thread and the handles run on the caller threads, all holding the interpreter lease,
+ * so the runs of the handles are serialized. Parsing runs the script as ScriptInterpreter.runScript does.
+ * A listener throwing an exception is logged and does not stop the watcher.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class ScriptWatcher implements AutoCloseable {
+
+    private static final System.Logger LOGGER = System.getLogger(ScriptWatcher.class.getName());
+
+    private final ScriptInterpreter interpreter;
+
+    private final WatchService watchService;
+
+    private final long debounceNanos;
+
+    private final ReloadListener listener;
+
+    /**
+     * Root of the watched directory tree, absolute and normalized.
+     */
+    private final Path root;
+
+    /**
+     * Watched scripts, by absolute file path.
+     */
+    private final Map<Path, ScriptHandle> handles = new ConcurrentHashMap<>();
+
+    /**
+     * Time of the last event received for each changed file, only used by the watcher thread.
+     */
+    private final Map<Path, Long> pending = new HashMap<>();
+
+    /**
+     * Lease of the interpreter, held to parse the scripts and to run the handles.
+     */
+    private final Object lease = new Object();
+
+    private final Thread thread;
+
+    private volatile boolean closed;
+
+    /**
+     * Create a new watcher and start its thread.
+     *
+     * @param provider  Provider building the interpreter used by this watcher and its handles.
+     * @param directory Root of the watched directory tree.
+     * @param debounce  Delay without event before a changed file is parsed.
+     * @param listener  Listener notified of the reloads.
+     * @throws IOException If the directory cannot be watched.
+     */
+    public ScriptWatcher(final ScriptInterpreterProvider provider, final Path directory, final Duration debounce, final ReloadListener listener) throws IOException {
+        super();
+        this.listener = Objects.requireNonNull(listener);
+        this.debounceNanos = debounce.toNanos();
+        this.root = directory.toAbsolutePath().normalize();
+        this.watchService = FileSystems.getDefault().newWatchService();
+        try {
+            this.registerTree(this.root);
+        } catch (IOException e) {
+            this.watchService.close();
+            throw e;
+        }
+        this.interpreter = provider.getInterpreter();
+        this.thread = Thread.ofPlatform().daemon().name("script-watcher").start(this::watch);
+    }
+
+    /**
+     * Parse a script and watch its file.
+     *
+     * @param file Script file, in the watched directory tree.
+     * @return The handle always running the latest version of the script.
+     * @throws ScriptException If the script cannot be parsed.
+     * @throws IllegalArgumentException If the file is not in the watched directory tree.
+     */
+    public ScriptHandle register(final Path file) throws ScriptException {
+        Path key = file.toAbsolutePath().normalize();
+        if (!key.startsWith(this.root)) {
+            throw new IllegalArgumentException("File not in the watched directory " + this.root + ": " + key);
+        }
+        // Checked under the lease so a file registered concurrently is parsed once.
+        synchronized (this.lease) {
+            ScriptHandle handle = this.handles.get(key);
+            if (handle == null) {
+                handle = new ScriptHandle(this, key, this.parse(key));
+                this.handles.put(key, handle);
+            }
+            return handle;
+        }
+    }
+
+    /**
+     * Stop watching and close the interpreter once the running handles are done, the handles cannot be run anymore.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        try {
+            this.watchService.close();
+        } catch (IOException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Error closing watch service", e);
+        }
+        this.thread.interrupt();
+        synchronized (this.lease) {
+            try {
+                this.interpreter.close();
+            } catch (Exception e) {
+                LOGGER.log(System.Logger.Level.WARNING, "Error closing interpreter", e);
+            }
+        }
+    }
+
+    /**
+     * Run a handle script holding the interpreter lease.
+     *
+     * @param execution Run of the handle script.
+     * @throws IllegalStateException If the watcher is closed.
+     */
+    void runLeased(final Runnable execution) {
+        synchronized (this.lease) {
+            if (this.closed) {
+                throw new IllegalStateException("Script watcher is closed.");
+            }
+            execution.run();
+        }
+    }
+
+    private void watch() {
+        long pollNanos = Math.max(this.debounceNanos, TimeUnit.MILLISECONDS.toNanos(1));
+        while (!this.closed) {
+            try {
+                WatchKey key = this.watchService.poll(pollNanos, TimeUnit.NANOSECONDS);
+                if (key != null) {
+                    this.handleEvents(key);
+                }
+                this.reloadSettledFiles();
+            } catch (ClosedWatchServiceException | InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void handleEvents(final WatchKey key) {
+        Path directory = (Path) key.watchable();
+        long now = System.nanoTime();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                this.handles.keySet().forEach(p -> this.pending.put(p, now));
+                continue;
+            }
+            Path file = directory.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(file)) {
+                this.registerTreeQuietly(file);
+            } else if (this.handles.containsKey(file)) {
+                this.pending.put(file, now);
+            }
+        }
+        key.reset();
+    }
+
+    private void reloadSettledFiles() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<Path, Long>> iterator = this.pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, Long> entry = iterator.next();
+            if (now - entry.getValue() >= this.debounceNanos) {
+                iterator.remove();
+                this.reload(this.handles.get(entry.getKey()));
+            }
+        }
+    }
+
+    private void reload(final ScriptHandle handle) {
+        ParsedScript script;
+        try {
+            script = this.parse(handle.getFile());
+        } catch (ScriptException e) {
+            try {
+                this.listener.onReloadFailed(handle, e);
+            } catch (RuntimeException listenerError) {
+                LOGGER.log(System.Logger.Level.WARNING, "Reload listener failed for " + handle.getFile(), listenerError);
+            }
+            return;
+        }
+        handle.swap(script);
+        try {
+            this.listener.onReloaded(handle);
+        } catch (RuntimeException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Reload listener failed for " + handle.getFile(), e);
+        }
+    }
+
+    private ParsedScript parse(final Path file) throws ScriptException {
+        synchronized (this.lease) {
+            if (this.closed) {
+                throw new ScriptException("Script watcher is closed.");
+            }
+            try {
+                return this.interpreter.runScript(file.toString());
+            } catch (RuntimeException e) {
+                throw new ScriptException(e);
+            }
+        }
+    }
+
+    private void registerTree(final Path root) throws IOException {
+        try (Stream<Path> directories = Files.walk(root)) {
+            for (Path directory : (Iterable<Path>) directories.filter(Files::isDirectory)::iterator) {
+                directory.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        } catch (UncheckedIOException e) {
+            // Thrown while walking, for example by a sub directory deleted meanwhile.
+            throw e.getCause();
+        }
+    }
+
+    private void registerTreeQuietly(final Path root) {
+        try {
+            this.registerTree(root);
+        } catch (IOException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Cannot watch directory " + root, e);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.replay;
+
+import be.yildizgames.module.script.ArgumentFrame;
+import be.yildizgames.module.script.BatchMode;
+import be.yildizgames.module.script.CommandResult;
+import be.yildizgames.module.script.CompiledCommand;
+import be.yildizgames.module.script.ExecutionMonitor;
+import be.yildizgames.module.script.ForwardingScriptInterpreter;
+import be.yildizgames.module.script.ParsedScript;
+import be.yildizgames.module.script.ScriptException;
+import be.yildizgames.module.script.ScriptInterpreter;
+import be.yildizgames.module.script.ValueType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Script interpreter decorator recording every script parsing, command and parsed script run in a replay log,
+ * with its arguments, its result or error, and its timing, to reproduce the exact sequence with a ScriptReplayer.
+ * Results and object arguments are recorded with String.valueOf.
+ * The parsed scripts returned by runScript are wrapped to record their runs, batch runs are recorded row by row.
+ * A failure to write the log does not fail the recorded call, it is reported by the log writer on flush and close.
+ *
+ * @author Grégory Van den Borre
+ */
+public class RecordingScriptInterpreter extends ForwardingScriptInterpreter {
+
+    private static final ThreadLocal<ReplayFormat.RecordOutput> OUTPUT = ThreadLocal.withInitial(ReplayFormat.RecordOutput::new);
+
+    private final ReplayLogWriter log;
+
+    private final AtomicInteger scriptIds = new AtomicInteger();
+
+    /**
+     * Create a new recorder.
+     *
+     * @param delegate Interpreter to decorate.
+     * @param log      Log receiving the records, closed by the caller.
+     */
+    public RecordingScriptInterpreter(final ScriptInterpreter delegate, final ReplayLogWriter log) {
+        super(delegate);
+        this.log = Objects.requireNonNull(log);
+    }
+
+    @Override
+    public ParsedScript runScript(final String file) throws ScriptException {
+        int id = this.scriptIds.getAndIncrement();
+        long start = this.log.now();
+        try {
+            ParsedScript script = this.delegate.runScript(file);
+            this.append(this.begin(ReplayFormat.SCRIPT, ReplayFormat.SUCCESS, start).putInt(id).putString(file));
+            return new RecordedScript(id, script);
+        } catch (ScriptException | RuntimeException e) {
+            this.append(this.begin(ReplayFormat.SCRIPT, ReplayFormat.ERROR, start).putInt(id).putString(file).putString(e.getMessage()));
+            throw e;
+        }
+    }
+
+    @Override
+    public Object runCommand(final String command) throws ScriptException {
+        long start = this.log.now();
+        try {
+            return this.recordCommand(command, start, this.delegate.runCommand(command));
+        } catch (ScriptException | RuntimeException e) {
+            this.recordCommandError(command, start, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Object runCommand(final String command, final ExecutionMonitor monitor) throws ScriptException {
+        long start = this.log.now();
+        try {
+            return this.recordCommand(command, start, this.delegate.runCommand(command, monitor));
+        } catch (ScriptException | RuntimeException e) {
+            this.recordCommandError(command, start, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public CompiledCommand compileCommand(final String command) throws ScriptException {
+        CompiledCommand compiled = this.delegate.compileCommand(command);
+        return new CompiledCommand() {
+            @Override
+            public Object run() throws ScriptException {
+                long start = RecordingScriptInterpreter.this.log.now();
+                try {
+                    return RecordingScriptInterpreter.this.recordCommand(command, start, compiled.run());
+                } catch (ScriptException | RuntimeException e) {
+                    RecordingScriptInterpreter.this.recordCommandError(command, start, e);
+                    throw e;
+                }
+            }
+
+            @Override
+            public Object run(final ExecutionMonitor monitor) throws ScriptException {
+                long start = RecordingScriptInterpreter.this.log.now();
+                try {
+                    return RecordingScriptInterpreter.this.recordCommand(command, start, compiled.run(monitor));
+                } catch (ScriptException | RuntimeException e) {
+                    RecordingScriptInterpreter.this.recordCommandError(command, start, e);
+                    throw e;
+                }
+            }
+        };
+    }
+
+    @Override
+    public List<CommandResult> runCommands(final List<String> commands, final BatchMode mode) {
+        List<CommandResult> results = new ArrayList<>(commands.size());
+        for (String command : commands) {
+            try {
+                results.add(CommandResult.success(command, this.runCommand(command)));
+            } catch (ScriptException e) {
+                results.add(CommandResult.failure(command, e));
+                if (mode == BatchMode.STOP_ON_FIRST_ERROR) {
+                    break;
+                }
+            }
+        }
+        return results;
+    }
+
+    private Object recordCommand(final String command, final long start, final Object result) {
+        this.append(this.begin(ReplayFormat.COMMAND, ReplayFormat.SUCCESS, start).putString(command).putString(result == null ? null : String.valueOf(result)));
+        return result;
+    }
+
+    private void recordCommandError(final String command, final long start, final Exception error) {
+        this.append(this.begin(ReplayFormat.COMMAND, ReplayFormat.ERROR, start).putString(command).putString(error.getMessage()));
+    }
+
+    private ReplayFormat.RecordOutput begin(final byte type, final byte status, final long start) {
+        return OUTPUT.get().begin(type, status, start, this.log.now() - start);
+    }
+
+    private void append(final ReplayFormat.RecordOutput output) {
+        try {
+            this.log.append(output.end(), output.length());
+        } catch (ScriptException e) {
+            // Reported by the log writer on flush and close.
+        }
+    }
+
+    private static void putArguments(final ReplayFormat.RecordOutput output, final ArgumentFrame frame) {
+        output.putShort(frame.getPrimitiveSlots());
+        for (int slot = 0; slot < frame.getPrimitiveSlots(); slot++) {
+            ValueType type = frame.getType(slot);
+            output.putByte(type.ordinal());
+            output.putLong(type == ValueType.DOUBLE ? Double.doubleToRawLongBits(frame.getDouble(slot)) : frame.getLong(slot));
+        }
+        output.putShort(frame.getObjectSlots());
+        for (int slot = 0; slot < frame.getObjectSlots(); slot++) {
+            Object value = frame.getObject(slot);
+            output.putString(value == null ? null : String.valueOf(value));
+        }
+    }
+
+    private static void putResult(final ReplayFormat.RecordOutput output, final ArgumentFrame frame) {
+        ValueType type = frame.getResultType();
+        output.putByte(type.ordinal());
+        switch (type) {
+            case INT, LONG -> output.putLong(frame.getLongResult());
+            case DOUBLE -> output.putLong(Double.doubleToRawLongBits(frame.getDoubleResult()));
+            case OBJECT -> output.putString(frame.getObjectResult() == null ? null : String.valueOf(frame.getObjectResult()));
+            default -> output.putLong(0);
+        }
+    }
+
+    /**
+     * Parsed script recording its runs.
+     */
+    private final class RecordedScript implements ParsedScript {
+
+        private final int id;
+
+        private final ParsedScript script;
+
+        private RecordedScript(final int id, final ParsedScript script) {
+            super();
+            this.id = id;
+            this.script = script;
+        }
+
+        @Override
+        public void run() {
+            this.record(() -> this.script.run());
+        }
+
+        @Override
+        public void run(final ExecutionMonitor monitor) {
+            this.record(() -> this.script.run(monitor));
+        }
+
+        @Override
+        public void run(final ArgumentFrame frame) {
+            long start = RecordingScriptInterpreter.this.log.now();
+            try {
+                this.script.run(frame);
+            } catch (RuntimeException e) {
+                ReplayFormat.RecordOutput output = RecordingScriptInterpreter.this.begin(ReplayFormat.RUN_FRAME, ReplayFormat.ERROR, start).putInt(this.id);
+                putArguments(output, frame);
+                RecordingScriptInterpreter.this.append(output.putString(e.getMessage()));
+                throw e;
+            }
+            ReplayFormat.RecordOutput output = RecordingScriptInterpreter.this.begin(ReplayFormat.RUN_FRAME, ReplayFormat.SUCCESS, start).putInt(this.id);
+            putArguments(output, frame);
+            putResult(output, frame);
+            RecordingScriptInterpreter.this.append(output);
+        }
+
+        @Override
+        public boolean isThreadSafe() {
+            return this.script.isThreadSafe();
+        }
+
+        private void record(final Runnable run) {
+            long start = RecordingScriptInterpreter.this.log.now();
+            try {
+                run.run();
+            } catch (RuntimeException e) {
+                RecordingScriptInterpreter.this.append(RecordingScriptInterpreter.this.begin(ReplayFormat.RUN, ReplayFormat.ERROR, start).putInt(this.id).putString(e.getMessage()));
+                throw e;
+            }
+            RecordingScriptInterpreter.this.append(RecordingScriptInterpreter.this.begin(ReplayFormat.RUN, ReplayFormat.SUCCESS, start).putInt(this.id));
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.replay;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Layout of a replay log, all values are big endian:
+ * <ul>
+ * <li>magic number "YSR1", int</li>
+ * <li>format version, short</li>
+ * <li>records, until the end of the file</li>
+ * </ul>
+ * A record is its length as int, not counting the length itself, followed by:
+ * <ul>
+ * <li>type, byte, and status, byte, 0 for a success and 1 for an error</li>
+ * <li>start time in nanoseconds since the log was opened, long, and duration in nanoseconds, long</li>
+ * <li>SCRIPT: script id as int, file as string</li>
+ * <li>COMMAND: command as string, then the result as string if success</li>
+ * <li>RUN: script id as int</li>
+ * <li>RUN_FRAME: script id as int, primitive count as short and for each its value type ordinal as byte and raw bits as long,
+ * object count as short and for each its string value, then the result value type ordinal as byte and its raw bits as long or its string value if success</li>
+ * <li>the error message as string if error</li>
+ * </ul>
+ * A string is stored as its UTF-8 length in an int, -1 for null, followed by its UTF-8 bytes.
+ * A truncated last record, as left by a crash, is ignored.
+ *
+ * @author Grégory Van den Borre
+ */
+final class ReplayFormat {
+
+    static final int MAGIC = 0x59535231;
+
+    static final short VERSION = 1;
+
+    static final byte SCRIPT = 1;
+
+    static final byte COMMAND = 2;
+
+    static final byte RUN = 3;
+
+    static final byte RUN_FRAME = 4;
+
+    static final byte SUCCESS = 0;
+
+    static final byte ERROR = 1;
+
+    private ReplayFormat() {
+        super();
+    }
+
+    static String getString(final ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reusable record encoder, one per recording thread.
+     */
+    static final class RecordOutput extends ByteArrayOutputStream {
+
+        private final DataOutputStream data = new DataOutputStream(this);
+
+        RecordOutput() {
+            super(256);
+        }
+
+        /**
+         * Start a new record, reserving the room for its length.
+         */
+        RecordOutput begin(final byte type, final byte status, final long start, final long duration) {
+            this.reset();
+            try {
+                this.data.writeInt(0);
+                this.data.writeByte(type);
+                this.data.writeByte(status);
+                this.data.writeLong(start);
+                this.data.writeLong(duration);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return this;
+        }
+
+        RecordOutput putByte(final int value) {
+            this.write(value);
+            return this;
+        }
+
+        RecordOutput putShort(final int value) {
+            try {
+                this.data.writeShort(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return this;
+        }
+
+        RecordOutput putInt(final int value) {
+            try {
+                this.data.writeInt(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return this;
+        }
+
+        RecordOutput putLong(final long value) {
+            try {
+                this.data.writeLong(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return this;
+        }
+
+        RecordOutput putString(final String value) {
+            if (value == null) {
+                return this.putInt(-1);
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            this.putInt(bytes.length);
+            this.write(bytes, 0, bytes.length);
+            return this;
+        }
+
+        /**
+         * Write the record length in the reserved room.
+         *
+         * @return The encoded record.
+         */
+        byte[] end() {
+            int length = this.count - Integer.BYTES;
+            this.buf[0] = (byte) (length >>> 24);
+            this.buf[1] = (byte) (length >>> 16);
+            this.buf[2] = (byte) (length >>> 8);
+            this.buf[3] = (byte) length;
+            return this.buf;
+        }
+
+        int length() {
+            return this.count;
+        }
+    }
+}
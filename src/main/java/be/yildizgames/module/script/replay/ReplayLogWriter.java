@@ -0,0 +1,326 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.replay;
+
+import be.yildizgames.module.script.ScriptException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append only replay log, records are copied in a memory buffer and written to the file channel by a dedicated thread.
+ * All the records appended during a commit interval are written, and optionally forced to the disk, in a single group commit,
+ * two buffers are swapped so the recording threads keep appending while a commit is written.
+ * A recording thread only waits when the buffer is full.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class ReplayLogWriter implements AutoCloseable {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final Duration DEFAULT_COMMIT_INTERVAL = Duration.ofMillis(5);
+
+    private final FileChannel channel;
+
+    private final boolean sync;
+
+    private final long commitIntervalNanos;
+
+    private final long origin = System.nanoTime();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition flushRequested = this.lock.newCondition();
+
+    private final Condition flushed = this.lock.newCondition();
+
+    private final Thread flusher;
+
+    /**
+     * Buffer receiving the records, guarded by the lock.
+     */
+    private ByteBuffer active;
+
+    /**
+     * Empty buffer to swap with the active one, guarded by the lock.
+     */
+    private ByteBuffer standby;
+
+    /**
+     * Number of records in the active buffer, guarded by the lock.
+     */
+    private long pending;
+
+    private long records;
+
+    private long written;
+
+    private long commits;
+
+    private long bytes;
+
+    private IOException failure;
+
+    private boolean closed;
+
+    /**
+     * Create a log with a 64KB buffer, committed every 5ms without forcing the disk.
+     *
+     * @param file Log file, replaced if it exists.
+     * @throws ScriptException If the file cannot be created.
+     */
+    public ReplayLogWriter(final Path file) throws ScriptException {
+        this(file, DEFAULT_BUFFER_SIZE, DEFAULT_COMMIT_INTERVAL, false);
+    }
+
+    /**
+     * Create a log.
+     *
+     * @param file           Log file, replaced if it exists.
+     * @param bufferSize     Size of each of the two buffers, in bytes.
+     * @param commitInterval Maximum time between two group commits.
+     * @param sync           True to force every commit to the disk, so the records survive a system crash.
+     * @throws ScriptException If the file cannot be created.
+     */
+    public ReplayLogWriter(final Path file, final int bufferSize, final Duration commitInterval, final boolean sync) throws ScriptException {
+        super();
+        if (bufferSize < 64) {
+            throw new IllegalArgumentException("Buffer size must be at least 64 bytes: " + bufferSize);
+        }
+        this.sync = sync;
+        this.commitIntervalNanos = commitInterval.toNanos();
+        this.active = ByteBuffer.allocate(bufferSize);
+        this.standby = ByteBuffer.allocate(bufferSize);
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + Short.BYTES);
+            header.putInt(ReplayFormat.MAGIC).putShort(ReplayFormat.VERSION).flip();
+            while (header.hasRemaining()) {
+                this.channel.write(header);
+            }
+        } catch (IOException e) {
+            throw new ScriptException(e);
+        }
+        this.flusher = Thread.ofPlatform().name("replay-log").daemon().start(this::commitLoop);
+    }
+
+    /**
+     * Wait until all the records appended so far are written to the file.
+     *
+     * @throws ScriptException If the writing failed.
+     */
+    public void flush() throws ScriptException {
+        this.lock.lock();
+        try {
+            long target = this.records;
+            while (this.written < target && this.failure == null) {
+                this.flushRequested.signal();
+                this.flushed.awaitUninterruptibly();
+            }
+            if (this.failure != null) {
+                throw new ScriptException(this.failure);
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of records appended.
+     */
+    public long getRecords() {
+        this.lock.lock();
+        try {
+            return this.records;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of group commits written.
+     */
+    public long getCommits() {
+        this.lock.lock();
+        try {
+            return this.commits;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of record bytes written.
+     */
+    public long getBytes() {
+        this.lock.lock();
+        try {
+            return this.bytes;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Write the pending records and close the file.
+     *
+     * @throws ScriptException If the writing failed.
+     */
+    @Override
+    public void close() throws ScriptException {
+        this.lock.lock();
+        try {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            this.flushRequested.signal();
+        } finally {
+            this.lock.unlock();
+        }
+        try {
+            this.flusher.join();
+            this.channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ScriptException(e);
+        } catch (IOException e) {
+            throw new ScriptException(e);
+        }
+        if (this.failure != null) {
+            throw new ScriptException(this.failure);
+        }
+    }
+
+    /**
+     * @return The time elapsed since the log was opened, in nanoseconds.
+     */
+    long now() {
+        return System.nanoTime() - this.origin;
+    }
+
+    /**
+     * Append an encoded record.
+     *
+     * @param record Record bytes.
+     * @param length Record length.
+     * @throws ScriptException If the log is closed or its writing failed.
+     */
+    void append(final byte[] record, final int length) throws ScriptException {
+        this.lock.lock();
+        try {
+            while (true) {
+                if (this.closed) {
+                    throw new ScriptException("Replay log is closed.");
+                }
+                if (this.failure != null) {
+                    throw new ScriptException(this.failure);
+                }
+                if (this.active.remaining() >= length) {
+                    break;
+                }
+                if (this.active.position() == 0) {
+                    this.active = ByteBuffer.allocate(length);
+                    break;
+                }
+                this.flushRequested.signal();
+                this.flushed.awaitUninterruptibly();
+            }
+            this.active.put(record, 0, length);
+            this.records++;
+            this.pending++;
+            if (this.active.position() > this.active.capacity() / 2) {
+                this.flushRequested.signal();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void commitLoop() {
+        while (true) {
+            ByteBuffer toWrite;
+            long count;
+            this.lock.lock();
+            try {
+                if (!this.closed && this.active.position() <= this.active.capacity() / 2) {
+                    this.flushRequested.awaitNanos(this.commitIntervalNanos);
+                }
+                if (this.active.position() == 0) {
+                    if (this.closed) {
+                        return;
+                    }
+                    continue;
+                }
+                toWrite = this.active;
+                count = this.pending;
+                this.active = this.standby;
+                this.pending = 0;
+                this.flushed.signalAll();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                this.lock.unlock();
+            }
+            IOException error = this.write(toWrite);
+            this.lock.lock();
+            try {
+                this.failure = error == null ? this.failure : error;
+                this.bytes += toWrite.limit();
+                this.written += count;
+                this.commits++;
+                toWrite.clear();
+                this.standby = toWrite;
+                this.flushed.signalAll();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    private IOException write(final ByteBuffer buffer) {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                this.channel.write(buffer);
+            }
+            if (this.sync) {
+                this.channel.force(false);
+            }
+            return null;
+        } catch (IOException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.replay;
+
+import java.util.List;
+
+/**
+ * Result of a replay.
+ *
+ * @param records       Number of records replayed.
+ * @param mismatches    Number of records whose outcome differs from the recorded one: other result, or success instead of error and the opposite.
+ * @param recordedNanos Sum of the recorded durations, in nanoseconds.
+ * @param replayNanos   Time taken by the replay, in nanoseconds.
+ * @param differences   Description of the first mismatches.
+ * @author Grégory Van den Borre
+ */
+public record ReplayReport(long records, long mismatches, long recordedNanos, long replayNanos, List<String> differences) {
+
+    /**
+     * @return True if every record had the recorded outcome.
+     */
+    public boolean isIdentical() {
+        return this.mismatches == 0;
+    }
+
+    /**
+     * @return The number of records replayed per second.
+     */
+    public double recordsPerSecond() {
+        return this.replayNanos == 0 ? 0 : this.records * 1_000_000_000.0 / this.replayNanos;
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.replay;
+
+import be.yildizgames.module.script.ArgumentFrame;
+import be.yildizgames.module.script.ParsedScript;
+import be.yildizgames.module.script.ScriptException;
+import be.yildizgames.module.script.ScriptInterpreter;
+import be.yildizgames.module.script.ValueType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Run a replay log again, as fast as possible, with any interpreter.
+ * Every record is executed in the log order and its outcome compared with the recorded one, so the replay can be used to find a desync
+ * or to measure the throughput of a provider on a real workload.
+ * Object arguments are replayed as the recorded strings.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class ScriptReplayer {
+
+    /**
+     * Maximum number of differences described in the report.
+     */
+    private static final int MAX_DIFFERENCES = 100;
+
+    private static final ValueType[] TYPES = ValueType.values();
+
+    /**
+     * Size of the mapped chunks of the log file, a larger record gets its own mapping.
+     */
+    private static final long CHUNK_SIZE = 64L * 1024 * 1024;
+
+    private final ScriptInterpreter interpreter;
+
+    /**
+     * Create a new replayer.
+     *
+     * @param interpreter Interpreter running the records.
+     */
+    public ScriptReplayer(final ScriptInterpreter interpreter) {
+        super();
+        this.interpreter = Objects.requireNonNull(interpreter);
+    }
+
+    /**
+     * Replay a log file.
+     *
+     * @param file Log file.
+     * @return The replay report.
+     * @throws ScriptException If the file cannot be read or is not a replay log.
+     */
+    public ReplayReport replay(final Path file) throws ScriptException {
+        Replay replay = new Replay();
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + Short.BYTES);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < Integer.BYTES + Short.BYTES || header.getInt() != ReplayFormat.MAGIC) {
+                throw new ScriptException("Not a replay log: " + file);
+            }
+            short version = header.getShort();
+            if (version != ReplayFormat.VERSION) {
+                throw new ScriptException("Unsupported replay log version: " + version);
+            }
+            this.replayRecords(channel, size, header.limit(), replay);
+        } catch (IOException e) {
+            throw new ScriptException(e);
+        }
+        return new ReplayReport(replay.records, replay.mismatches, replay.recordedNanos, System.nanoTime() - start, List.copyOf(replay.differences));
+    }
+
+    /**
+     * Replay the records, the file is mapped by chunks so its size is not limited by a single mapping.
+     * A truncated last record is ignored, a corrupt record is reported as a mismatch, a corrupt length stops the replay.
+     *
+     * @param channel  Log file.
+     * @param size     Log file size.
+     * @param position Position of the first record.
+     * @param replay   Replay state.
+     * @throws IOException If the file cannot be mapped.
+     */
+    private void replayRecords(final FileChannel channel, final long size, final long position, final Replay replay) throws IOException {
+        long current = position;
+        ByteBuffer chunk = ByteBuffer.allocate(0);
+        while (true) {
+            if (chunk.remaining() < Integer.BYTES) {
+                if (size - current < Integer.BYTES) {
+                    return;
+                }
+                chunk = channel.map(FileChannel.MapMode.READ_ONLY, current, Math.min(CHUNK_SIZE, size - current));
+            }
+            int length = chunk.getInt();
+            current += Integer.BYTES;
+            if (length < 0) {
+                replay.mismatch("Corrupt record length " + length + " at offset " + (current - Integer.BYTES));
+                return;
+            }
+            if (length > size - current) {
+                return;
+            }
+            if (length > chunk.remaining()) {
+                chunk = channel.map(FileChannel.MapMode.READ_ONLY, current, Math.max(length, Math.min(CHUNK_SIZE, size - current)));
+            }
+            ByteBuffer record = chunk.slice(chunk.position(), length);
+            chunk.position(chunk.position() + length);
+            try {
+                replay.run(record);
+            } catch (RuntimeException e) {
+                replay.mismatch("Corrupt record at offset " + current + ": " + e);
+            }
+            current += length;
+        }
+    }
+
+    /**
+     * State of a replay in progress.
+     */
+    private final class Replay {
+
+        private final Map<Integer, ParsedScript> scripts = new HashMap<>();
+
+        private final List<String> differences = new ArrayList<>();
+
+        private long records;
+
+        private long mismatches;
+
+        private long recordedNanos;
+
+        private void run(final ByteBuffer record) {
+            byte type = record.get();
+            boolean recordedError = record.get() == ReplayFormat.ERROR;
+            record.getLong();
+            this.recordedNanos += record.getLong();
+            this.records++;
+            switch (type) {
+                case ReplayFormat.SCRIPT -> this.script(record, recordedError);
+                case ReplayFormat.COMMAND -> this.command(record, recordedError);
+                case ReplayFormat.RUN -> this.run(record, recordedError);
+                case ReplayFormat.RUN_FRAME -> this.runFrame(record, recordedError);
+                default -> this.mismatch("Unknown record type " + type);
+            }
+        }
+
+        private void script(final ByteBuffer record, final boolean recordedError) {
+            int id = record.getInt();
+            String file = ReplayFormat.getString(record);
+            try {
+                this.scripts.put(id, ScriptReplayer.this.interpreter.runScript(file));
+                this.checkSuccess(recordedError, "runScript " + file);
+            } catch (ScriptException | RuntimeException e) {
+                this.checkError(recordedError, "runScript " + file, e);
+            }
+        }
+
+        private void command(final ByteBuffer record, final boolean recordedError) {
+            String command = ReplayFormat.getString(record);
+            try {
+                Object result = ScriptReplayer.this.interpreter.runCommand(command);
+                if (this.checkSuccess(recordedError, "runCommand " + command)) {
+                    String expected = ReplayFormat.getString(record);
+                    String actual = result == null ? null : String.valueOf(result);
+                    if (!Objects.equals(expected, actual)) {
+                        this.mismatch("runCommand " + command + ": expected " + expected + ", got " + actual);
+                    }
+                }
+            } catch (ScriptException | RuntimeException e) {
+                this.checkError(recordedError, "runCommand " + command, e);
+            }
+        }
+
+        private void run(final ByteBuffer record, final boolean recordedError) {
+            int id = record.getInt();
+            ParsedScript script = this.scripts.get(id);
+            if (script == null) {
+                this.mismatch("run of script " + id + " which was not parsed");
+                return;
+            }
+            try {
+                script.run();
+                this.checkSuccess(recordedError, "run of script " + id);
+            } catch (RuntimeException e) {
+                this.checkError(recordedError, "run of script " + id, e);
+            }
+        }
+
+        private void runFrame(final ByteBuffer record, final boolean recordedError) {
+            int id = record.getInt();
+            int primitives = record.getShort();
+            ValueType[] types = new ValueType[primitives];
+            long[] values = new long[primitives];
+            for (int slot = 0; slot < primitives; slot++) {
+                types[slot] = TYPES[record.get()];
+                values[slot] = record.getLong();
+            }
+            int objects = record.getShort();
+            ArgumentFrame frame = new ArgumentFrame(primitives, objects);
+            for (int slot = 0; slot < primitives; slot++) {
+                switch (types[slot]) {
+                    case INT -> frame.setInt(slot, (int) values[slot]);
+                    case DOUBLE -> frame.setDouble(slot, Double.longBitsToDouble(values[slot]));
+                    case LONG -> frame.setLong(slot, values[slot]);
+                    default -> {
+                        // Slot never set.
+                    }
+                }
+            }
+            for (int slot = 0; slot < objects; slot++) {
+                frame.setObject(slot, ReplayFormat.getString(record));
+            }
+            ParsedScript script = this.scripts.get(id);
+            if (script == null) {
+                this.mismatch("run of script " + id + " which was not parsed");
+                return;
+            }
+            try {
+                script.run(frame);
+                if (this.checkSuccess(recordedError, "run of script " + id)) {
+                    this.checkResult(record, frame, id);
+                }
+            } catch (RuntimeException e) {
+                this.checkError(recordedError, "run of script " + id, e);
+            }
+        }
+
+        private void checkResult(final ByteBuffer record, final ArgumentFrame frame, final int id) {
+            ValueType expectedType = TYPES[record.get()];
+            String expected = expectedType == ValueType.OBJECT ? ReplayFormat.getString(record) : describe(expectedType, record.getLong());
+            String actual;
+            switch (frame.getResultType()) {
+                case INT, LONG -> actual = describe(frame.getResultType(), frame.getLongResult());
+                case DOUBLE -> actual = describe(ValueType.DOUBLE, Double.doubleToRawLongBits(frame.getDoubleResult()));
+                case OBJECT -> actual = frame.getObjectResult() == null ? null : String.valueOf(frame.getObjectResult());
+                default -> actual = describe(ValueType.VOID, 0);
+            }
+            if (expectedType != frame.getResultType() || !Objects.equals(expected, actual)) {
+                this.mismatch("run of script " + id + ": expected " + expectedType + " " + expected + ", got " + frame.getResultType() + " " + actual);
+            }
+        }
+
+        private boolean checkSuccess(final boolean recordedError, final String call) {
+            if (recordedError) {
+                this.mismatch(call + ": expected an error, succeeded");
+                return false;
+            }
+            return true;
+        }
+
+        private void checkError(final boolean recordedError, final String call, final Exception error) {
+            if (!recordedError) {
+                this.mismatch(call + ": expected a success, failed with " + error.getMessage());
+            }
+        }
+
+        private void mismatch(final String difference) {
+            this.mismatches++;
+            if (this.differences.size() < MAX_DIFFERENCES) {
+                this.differences.add(difference);
+            }
+        }
+
+        private static String describe(final ValueType type, final long bits) {
+            return switch (type) {
+                case INT, LONG -> Long.toString(bits);
+                case DOUBLE -> Double.toString(Double.longBitsToDouble(bits));
+                default -> "";
+            };
+        }
+    }
+}
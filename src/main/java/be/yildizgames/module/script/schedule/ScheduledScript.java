@@ -0,0 +1,137 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.schedule;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+/**
+ * Handle of a script registered in a scheduler, to follow and cancel it.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class ScheduledScript {
+
+    /**
+     * Start the run, with the nanoTime of the deadline, the future is completed once the run is over.
+     */
+    final LongFunction<CompletableFuture<?>> task;
+
+    final ScheduleMode mode;
+
+    /**
+     * Period in ticks.
+     */
+    final long period;
+
+    /**
+     * True while a run is in progress.
+     */
+    final AtomicBoolean running = new AtomicBoolean();
+
+    final LongAdder runs = new LongAdder();
+
+    final LongAdder overruns = new LongAdder();
+
+    final LongAdder failures = new LongAdder();
+
+    private final ScriptScheduler scheduler;
+
+    /**
+     * Tick of the next run, guarded by the scheduler lock.
+     */
+    long deadline;
+
+    /**
+     * Timing wheel slot containing this script, null when not waiting, guarded by the scheduler lock.
+     */
+    ScriptScheduler.Slot slot;
+
+    ScheduledScript previous;
+
+    ScheduledScript next;
+
+    private volatile boolean cancelled;
+
+    ScheduledScript(final ScriptScheduler scheduler, final LongFunction<CompletableFuture<?>> task, final ScheduleMode mode, final long period) {
+        super();
+        this.scheduler = scheduler;
+        this.task = task;
+        this.mode = mode;
+        this.period = period;
+    }
+
+    /**
+     * Prevent any further run, a run in progress is not interrupted.
+     *
+     * @return True if the script was cancelled by this call.
+     */
+    public boolean cancel() {
+        if (this.cancelled) {
+            return false;
+        }
+        this.cancelled = true;
+        this.scheduler.remove(this);
+        return true;
+    }
+
+    /**
+     * @return True if the script was cancelled.
+     */
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * @return The tick of the next run.
+     */
+    public long getDeadline() {
+        return this.scheduler.getDeadline(this);
+    }
+
+    /**
+     * @return The number of completed runs.
+     */
+    public long getRuns() {
+        return this.runs.sum();
+    }
+
+    /**
+     * @return The number of occurrences skipped because the previous run was not finished.
+     */
+    public long getOverruns() {
+        return this.overruns.sum();
+    }
+
+    /**
+     * @return The number of runs ending with an exception.
+     */
+    public long getFailures() {
+        return this.failures.sum();
+    }
+}
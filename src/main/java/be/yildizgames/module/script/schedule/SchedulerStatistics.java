@@ -0,0 +1,48 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.schedule;
+
+/**
+ * Snapshot of the counters of a script scheduler.
+ *
+ * @param ticks        Number of ticks processed.
+ * @param scheduled    Number of scripts currently waiting in the timing wheel.
+ * @param runs         Number of completed runs.
+ * @param overruns     Number of fixed rate occurrences skipped because the previous run was not finished.
+ * @param failures     Number of runs ending with an exception, or rejected by the executor.
+ * @param maxLagNanos  Maximum delay between a deadline and the start of the run, in nanoseconds.
+ * @param totalLagNanos Sum of the delays between the deadlines and the start of the runs, in nanoseconds.
+ * @author Grégory Van den Borre
+ */
+public record SchedulerStatistics(long ticks, long scheduled, long runs, long overruns, long failures, long maxLagNanos, long totalLagNanos) {
+
+    /**
+     * @return The average delay between a deadline and the start of the run, in nanoseconds, 0 if nothing was run.
+     */
+    public double averageLagNanos() {
+        return this.runs == 0 ? 0 : (double) this.totalLagNanos / this.runs;
+    }
+}
@@ -0,0 +1,577 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.schedule;
+
+import be.yildizgames.module.script.ParsedScript;
+import be.yildizgames.module.script.ScriptInterpreter;
+import be.yildizgames.module.script.async.AsyncScriptExecutor;
+import be.yildizgames.module.script.async.ScriptCall;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * Run parsed scripts after a delay or periodically, time being counted in ticks.
+ * The scripts wait in a hierarchical timing wheel of 6 levels of 64 slots, the level i slots covering 64^i ticks each,
+ * so registering, cancelling and expiring a script are constant time whatever the number of scripts.
+ * Ticks are advanced by the caller with tick(), typically from the game loop, or by a dedicated thread once start() is called.
+ * Scripts are run by the thread advancing the ticks when the scheduler is built with an interpreter, or by an asynchronous executor
+ * when built with one, the calls then get an interpreter from its pool.
+ * A parsed script is bound to the interpreter which parsed it, so the asynchronous executor only accepts thread safe parsed scripts,
+ * the others must be scheduled as calls, run under a lease of a pooled interpreter.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class ScriptScheduler implements AutoCloseable {
+
+    private static final int SLOT_BITS = 6;
+
+    private static final int SLOTS = 1 << SLOT_BITS;
+
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private static final int LEVELS = 6;
+
+    private final Slot[][] wheel = new Slot[LEVELS][SLOTS];
+
+    private final Dispatcher dispatcher;
+
+    private final long tickNanos;
+
+    private final LongAdder runs = new LongAdder();
+
+    private final LongAdder overruns = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    private final LongAdder totalLag = new LongAdder();
+
+    private final LongAccumulator maxLag = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Last processed tick, guarded by the lock.
+     */
+    private long currentTick;
+
+    /**
+     * Number of scripts in the wheel, guarded by the lock.
+     */
+    private long scheduled;
+
+    /**
+     * Time of the tick 0 when driven by tick(), set on the first call, guarded by the lock.
+     */
+    private long tickOrigin;
+
+    private boolean ticked;
+
+    private volatile Thread driver;
+
+    private volatile boolean closed;
+
+    /**
+     * Create a scheduler running the scripts on the thread advancing the ticks.
+     *
+     * @param interpreter  Interpreter given to the scheduled calls.
+     * @param tickDuration Duration of a tick, used to convert the durations and to drive the scheduler once started.
+     */
+    public ScriptScheduler(final ScriptInterpreter interpreter, final Duration tickDuration) {
+        this(new DirectDispatcher(Objects.requireNonNull(interpreter)), tickDuration);
+    }
+
+    /**
+     * Create a scheduler running the scripts with an asynchronous executor, the calls get an interpreter from the executor pool.
+     *
+     * @param executor     Executor running the scripts.
+     * @param tickDuration Duration of a tick, used to convert the durations and to drive the scheduler once started.
+     */
+    public ScriptScheduler(final AsyncScriptExecutor executor, final Duration tickDuration) {
+        this(new AsyncDispatcher(Objects.requireNonNull(executor)), tickDuration);
+    }
+
+    private ScriptScheduler(final Dispatcher dispatcher, final Duration tickDuration) {
+        super();
+        if (tickDuration.isNegative() || tickDuration.isZero()) {
+            throw new IllegalArgumentException("Tick duration must be positive: " + tickDuration);
+        }
+        this.dispatcher = dispatcher;
+        this.tickNanos = tickDuration.toNanos();
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                this.wheel[level][slot] = new Slot();
+            }
+        }
+    }
+
+    /**
+     * Schedule a parsed script.
+     *
+     * @param script Script to run.
+     * @param mode   Repetition mode.
+     * @param delay  Number of ticks before the first run, a delay lower than 1 means the next tick.
+     * @param period Number of ticks between two runs, ignored for ONCE.
+     * @return The handle of the scheduled script.
+     * @throws IllegalArgumentException If the script is not thread safe and the scheduler runs the scripts with an asynchronous executor.
+     */
+    public ScheduledScript schedule(final ParsedScript script, final ScheduleMode mode, final long delay, final long period) {
+        Objects.requireNonNull(script);
+        this.dispatcher.check(script);
+        return this.register(due -> this.dispatcher.run(script, due, this), mode, delay, period);
+    }
+
+    /**
+     * Schedule a parsed script.
+     *
+     * @param script Script to run.
+     * @param mode   Repetition mode.
+     * @param delay  Time before the first run, rounded up to a number of ticks.
+     * @param period Time between two runs, rounded up to a number of ticks, ignored for ONCE.
+     * @return The handle of the scheduled script.
+     * @throws IllegalArgumentException If the script is not thread safe and the scheduler runs the scripts with an asynchronous executor.
+     */
+    public ScheduledScript schedule(final ParsedScript script, final ScheduleMode mode, final Duration delay, final Duration period) {
+        return this.schedule(script, mode, this.toTicks(delay), this.toTicks(period));
+    }
+
+    /**
+     * Schedule a call requiring an interpreter.
+     *
+     * @param call   Call to run.
+     * @param mode   Repetition mode.
+     * @param delay  Number of ticks before the first run, a delay lower than 1 means the next tick.
+     * @param period Number of ticks between two runs, ignored for ONCE.
+     * @return The handle of the scheduled call.
+     */
+    public ScheduledScript schedule(final ScriptCall<?> call, final ScheduleMode mode, final long delay, final long period) {
+        Objects.requireNonNull(call);
+        return this.register(due -> this.dispatcher.submit(call, due, this), mode, delay, period);
+    }
+
+    /**
+     * Schedule a call requiring an interpreter.
+     *
+     * @param call   Call to run.
+     * @param mode   Repetition mode.
+     * @param delay  Time before the first run, rounded up to a number of ticks.
+     * @param period Time between two runs, rounded up to a number of ticks, ignored for ONCE.
+     * @return The handle of the scheduled call.
+     */
+    public ScheduledScript schedule(final ScriptCall<?> call, final ScheduleMode mode, final Duration delay, final Duration period) {
+        return this.schedule(call, mode, this.toTicks(delay), this.toTicks(period));
+    }
+
+    /**
+     * Advance the scheduler by one tick and run the scripts reaching their deadline.
+     * The lag is measured against the time the tick is due, the first tick time plus one tick duration per tick,
+     * so a caller ticking slower than the tick duration shows a growing lag.
+     * Must not be called once start() was called.
+     */
+    public void tick() {
+        if (this.driver != null) {
+            throw new IllegalStateException("Scheduler is driven by its own thread.");
+        }
+        long due;
+        synchronized (this) {
+            if (!this.ticked) {
+                this.ticked = true;
+                this.tickOrigin = System.nanoTime() - (this.currentTick + 1) * this.tickNanos;
+            }
+            due = this.tickOrigin + (this.currentTick + 1) * this.tickNanos;
+        }
+        this.advance(due);
+    }
+
+    /**
+     * Start a thread advancing the ticks at the tick duration rate, ticks missed while the thread was late are processed immediately.
+     */
+    public synchronized void start() {
+        if (this.closed) {
+            throw new IllegalStateException("Scheduler is closed.");
+        }
+        if (this.driver != null) {
+            return;
+        }
+        this.driver = Thread.ofPlatform().name("script-scheduler").daemon().start(this::drive);
+    }
+
+    /**
+     * @return The last processed tick.
+     */
+    public synchronized long getCurrentTick() {
+        return this.currentTick;
+    }
+
+    /**
+     * @return A snapshot of the scheduler counters.
+     */
+    public SchedulerStatistics getStatistics() {
+        long ticks;
+        long waiting;
+        synchronized (this) {
+            ticks = this.currentTick;
+            waiting = this.scheduled;
+        }
+        return new SchedulerStatistics(ticks, waiting, this.runs.sum(), this.overruns.sum(), this.failures.sum(), this.maxLag.get(), this.totalLag.sum());
+    }
+
+    /**
+     * Stop the driving thread and cancel all the scheduled scripts, runs in progress are not interrupted.
+     * The driving thread is woken up and waited for, unless close is called by a script run on it.
+     */
+    @Override
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            this.closed = true;
+            thread = this.driver;
+        }
+        if (thread != null && thread != Thread.currentThread()) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<ScheduledScript> remaining = new ArrayList<>();
+        synchronized (this) {
+            for (Slot[] level : this.wheel) {
+                for (Slot slot : level) {
+                    slot.drainTo(remaining);
+                }
+            }
+            this.scheduled = 0;
+        }
+        remaining.forEach(ScheduledScript::cancel);
+    }
+
+    synchronized void remove(final ScheduledScript script) {
+        if (script.slot != null) {
+            script.slot.remove(script);
+            this.scheduled--;
+        }
+    }
+
+    synchronized long getDeadline(final ScheduledScript script) {
+        return script.deadline;
+    }
+
+    /**
+     * Record the start of a run.
+     *
+     * @param dueNanos Time the run was due.
+     */
+    void started(final long dueNanos) {
+        long lag = Math.max(0, System.nanoTime() - dueNanos);
+        this.totalLag.add(lag);
+        this.maxLag.accumulate(lag);
+    }
+
+    private ScheduledScript register(final LongFunction<CompletableFuture<?>> task, final ScheduleMode mode, final long delay, final long period) {
+        Objects.requireNonNull(mode);
+        if (mode != ScheduleMode.ONCE && period < 1) {
+            throw new IllegalArgumentException("Period must be at least one tick: " + period);
+        }
+        ScheduledScript script = new ScheduledScript(this, task, mode, period);
+        synchronized (this) {
+            if (this.closed) {
+                throw new IllegalStateException("Scheduler is closed.");
+            }
+            script.deadline = this.currentTick + Math.max(delay, 1);
+            this.insert(script);
+        }
+        return script;
+    }
+
+    /**
+     * Process one tick.
+     *
+     * @param dueNanos Time the tick was due.
+     */
+    private void advance(final long dueNanos) {
+        List<ScheduledScript> expired = new ArrayList<>();
+        synchronized (this) {
+            long tick = ++this.currentTick;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((tick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    this.cascade(this.wheel[level][(int) (tick >>> (SLOT_BITS * level)) & SLOT_MASK]);
+                }
+            }
+            Slot slot = this.wheel[0][(int) tick & SLOT_MASK];
+            List<ScheduledScript> candidates = new ArrayList<>();
+            slot.drainTo(candidates);
+            this.scheduled -= candidates.size();
+            for (ScheduledScript script : candidates) {
+                if (script.deadline > tick) {
+                    this.insert(script);
+                    continue;
+                }
+                if (script.mode == ScheduleMode.FIXED_RATE) {
+                    script.deadline += script.period;
+                    this.insert(script);
+                }
+                expired.add(script);
+            }
+        }
+        for (ScheduledScript script : expired) {
+            this.fire(script, dueNanos);
+        }
+    }
+
+    private void fire(final ScheduledScript script, final long dueNanos) {
+        if (script.isCancelled() || this.closed) {
+            return;
+        }
+        if (!script.running.compareAndSet(false, true)) {
+            script.overruns.increment();
+            this.overruns.increment();
+            return;
+        }
+        CompletableFuture<?> future;
+        try {
+            future = script.task.apply(dueNanos);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((r, e) -> this.completed(script, e));
+    }
+
+    private void completed(final ScheduledScript script, final Throwable error) {
+        if (error == null) {
+            script.runs.increment();
+            this.runs.increment();
+        } else {
+            script.failures.increment();
+            this.failures.increment();
+        }
+        script.running.set(false);
+        if (script.mode == ScheduleMode.FIXED_DELAY && !script.isCancelled()) {
+            synchronized (this) {
+                if (!this.closed) {
+                    script.deadline = this.currentTick + script.period;
+                    this.insert(script);
+                }
+            }
+        }
+    }
+
+    /**
+     * Move the scripts of a higher level slot to the lower levels.
+     *
+     * @param slot Slot to empty.
+     */
+    private void cascade(final Slot slot) {
+        List<ScheduledScript> scripts = new ArrayList<>();
+        slot.drainTo(scripts);
+        this.scheduled -= scripts.size();
+        scripts.forEach(this::insert);
+    }
+
+    /**
+     * Put a script in the wheel, in the lowest level where its deadline is less than 64 slots away.
+     *
+     * @param script Script to insert.
+     */
+    private void insert(final ScheduledScript script) {
+        long deadline = Math.max(script.deadline, this.currentTick);
+        int level = 0;
+        while (level < LEVELS - 1 && (deadline >>> (SLOT_BITS * level)) - (this.currentTick >>> (SLOT_BITS * level)) >= SLOTS) {
+            level++;
+        }
+        long index = Math.min(deadline >>> (SLOT_BITS * level), (this.currentTick >>> (SLOT_BITS * level)) + SLOT_MASK);
+        this.wheel[level][(int) index & SLOT_MASK].add(script);
+        this.scheduled++;
+    }
+
+    private long toTicks(final Duration duration) {
+        long nanos = duration.toNanos();
+        return nanos <= 0 ? 0 : (nanos + this.tickNanos - 1) / this.tickNanos;
+    }
+
+    private void drive() {
+        long origin = System.nanoTime();
+        long ticks = 0;
+        while (!this.closed) {
+            long due = origin + (ticks + 1) * this.tickNanos;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+                continue;
+            }
+            ticks++;
+            this.advance(due);
+        }
+    }
+
+    /**
+     * Doubly linked list of the scripts in a wheel slot, guarded by the scheduler lock.
+     */
+    static final class Slot {
+
+        private ScheduledScript head;
+
+        private void add(final ScheduledScript script) {
+            script.slot = this;
+            script.previous = null;
+            script.next = this.head;
+            if (this.head != null) {
+                this.head.previous = script;
+            }
+            this.head = script;
+        }
+
+        private void remove(final ScheduledScript script) {
+            if (script.previous == null) {
+                this.head = script.next;
+            } else {
+                script.previous.next = script.next;
+            }
+            if (script.next != null) {
+                script.next.previous = script.previous;
+            }
+            script.slot = null;
+            script.previous = null;
+            script.next = null;
+        }
+
+        private void drainTo(final List<ScheduledScript> scripts) {
+            ScheduledScript current = this.head;
+            while (current != null) {
+                ScheduledScript next = current.next;
+                current.slot = null;
+                current.previous = null;
+                current.next = null;
+                scripts.add(current);
+                current = next;
+            }
+            this.head = null;
+        }
+    }
+
+    /**
+     * Strategy running the scheduled scripts.
+     */
+    private interface Dispatcher {
+
+        /**
+         * Check a parsed script can be scheduled.
+         *
+         * @param script Script to check.
+         */
+        default void check(final ParsedScript script) {
+            // Any script accepted.
+        }
+
+        CompletableFuture<?> run(ParsedScript script, long dueNanos, ScriptScheduler scheduler);
+
+        CompletableFuture<?> submit(ScriptCall<?> call, long dueNanos, ScriptScheduler scheduler);
+    }
+
+    /**
+     * Run the scripts on the thread advancing the ticks.
+     */
+    private static final class DirectDispatcher implements Dispatcher {
+
+        private final ScriptInterpreter interpreter;
+
+        private DirectDispatcher(final ScriptInterpreter interpreter) {
+            super();
+            this.interpreter = interpreter;
+        }
+
+        @Override
+        public CompletableFuture<?> run(final ParsedScript script, final long dueNanos, final ScriptScheduler scheduler) {
+            scheduler.started(dueNanos);
+            try {
+                script.run();
+                return CompletableFuture.completedFuture(null);
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        @Override
+        public CompletableFuture<?> submit(final ScriptCall<?> call, final long dueNanos, final ScriptScheduler scheduler) {
+            scheduler.started(dueNanos);
+            try {
+                return CompletableFuture.completedFuture(call.call(this.interpreter));
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+    }
+
+    /**
+     * Run the scripts with an asynchronous executor.
+     */
+    private static final class AsyncDispatcher implements Dispatcher {
+
+        private final AsyncScriptExecutor executor;
+
+        private AsyncDispatcher(final AsyncScriptExecutor executor) {
+            super();
+            this.executor = executor;
+        }
+
+        @Override
+        public void check(final ParsedScript script) {
+            if (!script.isThreadSafe()) {
+                throw new IllegalArgumentException("Script is not thread safe, schedule a call using a pooled interpreter instead.");
+            }
+        }
+
+        @Override
+        public CompletableFuture<?> run(final ParsedScript script, final long dueNanos, final ScriptScheduler scheduler) {
+            return this.executor.run(new ParsedScript() {
+                @Override
+                public void run() {
+                    scheduler.started(dueNanos);
+                    script.run();
+                }
+
+                @Override
+                public boolean isThreadSafe() {
+                    return true;
+                }
+            });
+        }
+
+        @Override
+        public CompletableFuture<?> submit(final ScriptCall<?> call, final long dueNanos, final ScriptScheduler scheduler) {
+            return this.executor.submit(i -> {
+                scheduler.started(dueNanos);
+                return call.call(i);
+            });
+        }
+    }
+}
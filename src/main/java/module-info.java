@@ -25,5 +25,23 @@
 
 open module be.yildizgames.module.scripting {
 
+    requires jdk.jfr;
+
     exports be.yildizgames.module.script;
+    exports be.yildizgames.module.script.async;
+    exports be.yildizgames.module.script.bundle;
+    exports be.yildizgames.module.script.bulk;
+    exports be.yildizgames.module.script.cache;
+    exports be.yildizgames.module.script.introspection;
+    exports be.yildizgames.module.script.loader;
+    exports be.yildizgames.module.script.memory;
+    exports be.yildizgames.module.script.metrics;
+    exports be.yildizgames.module.script.output;
+    exports be.yildizgames.module.script.pool;
+    exports be.yildizgames.module.script.profile;
+    exports be.yildizgames.module.script.reload;
+    exports be.yildizgames.module.script.replay;
+    exports be.yildizgames.module.script.schedule;
+
+    uses be.yildizgames.module.script.ScriptInterpreterProvider;
 }
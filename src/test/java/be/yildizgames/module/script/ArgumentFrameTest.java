@@ -0,0 +1,75 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script;
+
+import be.yildizgames.module.script.dummy.NoInterpreterProvider;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class ArgumentFrameTest {
+
+    @Test
+    void slots() {
+        ArgumentFrame frame = new ArgumentFrame(3, 1)
+                .setInt(0, 5)
+                .setLong(1, Long.MAX_VALUE)
+                .setDouble(2, 1.5)
+                .setObject(0, "entity");
+        assertEquals(5, frame.getInt(0));
+        assertEquals(ValueType.INT, frame.getType(0));
+        assertEquals(Long.MAX_VALUE, frame.getLong(1));
+        assertEquals(1.5, frame.getDouble(2));
+        assertEquals(ValueType.DOUBLE, frame.getType(2));
+        assertEquals("entity", frame.getObject(0));
+        frame.clear();
+        assertNull(frame.getObject(0));
+    }
+
+    @Test
+    void results() {
+        ArgumentFrame frame = new ArgumentFrame(0, 0);
+        frame.returnInt(3);
+        assertEquals(3, frame.getIntResult());
+        assertEquals(3, frame.getLongResult());
+        frame.returnDouble(2.5);
+        assertEquals(2.5, frame.getDoubleResult());
+        assertThrows(IllegalStateException.class, frame::getObjectResult);
+    }
+
+    @Test
+    void noInterpreterReturnsVoid() throws ScriptException {
+        ArgumentFrame frame = new ArgumentFrame(1, 0).setInt(0, 1);
+        frame.returnLong(4);
+        new NoInterpreterProvider().getInterpreter().runScript("").run(frame);
+        assertEquals(ValueType.VOID, frame.getResultType());
+    }
+}
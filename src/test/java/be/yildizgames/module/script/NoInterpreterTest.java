@@ -30,6 +30,7 @@ import org.junit.jupiter.api.Test;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -67,6 +68,14 @@ class NoInterpreterTest {
         assertEquals("", interpreter.runCommand("azerty"));
     }
 
+    @Test
+    void testRunCommands() {
+        List<CommandResult> results = interpreter.runCommands(List.of("a", "b"), BatchMode.STOP_ON_FIRST_ERROR);
+        assertEquals(2, results.size());
+        assertTrue(results.get(1).isSuccess());
+        assertEquals("", results.get(1).value());
+    }
+
     @Test
     void testPrint() {
         interpreter.print("azerty");
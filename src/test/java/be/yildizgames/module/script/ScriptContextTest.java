@@ -0,0 +1,154 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script;
+
+import be.yildizgames.module.script.dummy.NoInterpreterProvider;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class ScriptContextTest {
+
+    @Test
+    void contextsDoNotShareGlobals() throws ScriptException {
+        RecordingInterpreter interpreter = new RecordingInterpreter();
+        ParsedScript script = interpreter.runScript("");
+        Writer output = new StringWriter();
+        try (ScriptContext first = interpreter.createContext(); ScriptContext second = interpreter.createContext()) {
+            first.setGlobal("player", "first");
+            first.setOutput(output);
+            second.setGlobal("player", "second");
+            assertEquals("first", first.runCommand("player"));
+            assertEquals("second", second.runCommand("player"));
+            first.run(script);
+            assertTrue(interpreter.globals.isEmpty());
+            assertEquals("first", first.getGlobal("player"));
+        }
+    }
+
+    @Test
+    void outputIsRestoredAfterEachExecution() throws ScriptException {
+        RecordingInterpreter interpreter = new RecordingInterpreter();
+        Writer initial = new StringWriter();
+        interpreter.setOutput(initial);
+        StringWriter firstOutput = new StringWriter();
+        try (ScriptContext first = interpreter.createContext(); ScriptContext second = interpreter.createContext()) {
+            first.setOutput(firstOutput);
+            first.runCommand("first");
+            assertSame(initial, interpreter.output);
+            second.runCommand("second");
+            assertEquals("first", firstOutput.toString());
+            assertEquals("", initial.toString());
+            assertSame(initial, interpreter.output);
+        }
+    }
+
+    @Test
+    void closedContext() {
+        ScriptContext context = new RecordingInterpreter().createContext();
+        context.close();
+        assertTrue(context.isClosed());
+        assertThrows(ScriptException.class, () -> context.runCommand("player"));
+    }
+
+    @Test
+    void globalsRefusedWithoutBinding() {
+        try (ScriptContext context = new NoInterpreterProvider().getInterpreter().createContext()) {
+            assertThrows(UnsupportedOperationException.class, () -> context.setGlobal("player", "first"));
+        }
+    }
+
+    @Test
+    void decoratorContextsShareTheDelegateLock() {
+        RecordingInterpreter interpreter = new RecordingInterpreter();
+        ScriptInterpreter decorator = new ForwardingScriptInterpreter(interpreter) {
+        };
+        assertSame(interpreter.getContextLock(), decorator.getContextLock());
+        assertTrue(decorator.isGlobalBindingSupported());
+    }
+
+    /**
+     * Interpreter returning the value of the global variable named by the command.
+     */
+    private static final class RecordingInterpreter extends ForwardingScriptInterpreter {
+
+        private final Map<String, Object> globals = new HashMap<>();
+
+        private Writer output;
+
+        private RecordingInterpreter() {
+            super(new NoInterpreterProvider().getInterpreter());
+        }
+
+        @Override
+        public boolean isGlobalBindingSupported() {
+            return true;
+        }
+
+        @Override
+        protected void bindGlobal(final String name, final Object value) {
+            if (value == null) {
+                this.globals.remove(name);
+            } else {
+                this.globals.put(name, value);
+            }
+        }
+
+        @Override
+        public void setOutput(final Writer output) {
+            this.output = output;
+        }
+
+        @Override
+        public Writer getOutput() {
+            return this.output;
+        }
+
+        @Override
+        public Object runCommand(final String command) throws ScriptException {
+            if (this.output != null) {
+                try {
+                    this.output.write(command);
+                } catch (IOException e) {
+                    throw new ScriptException(e);
+                }
+            }
+            return this.globals.get(command);
+        }
+    }
+}
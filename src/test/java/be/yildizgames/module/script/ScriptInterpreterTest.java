@@ -0,0 +1,73 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class ScriptInterpreterTest {
+
+    @Test
+    void testRunCommandsStopOnFirstError() {
+        List<CommandResult> results = failingInterpreter().runCommands(List.of("a", "fail", "b"), BatchMode.STOP_ON_FIRST_ERROR);
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("fail", results.get(1).error().getMessage());
+    }
+
+    @Test
+    void testRunCommandsContinueOnError() {
+        StubInterpreter failing = failingInterpreter();
+        List<CommandResult> results = failing.runCommands(List.of("a", "fail", "b"), BatchMode.CONTINUE_ON_ERROR);
+        assertEquals(3, results.size());
+        assertEquals(3, failing.getExecuted());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("fail", results.get(1).error().getMessage());
+        assertTrue(results.get(2).isSuccess());
+        assertEquals("b", results.get(2).value());
+    }
+
+    private static StubInterpreter failingInterpreter() {
+        return new StubInterpreter() {
+            @Override
+            protected Object execute(final String command) throws ScriptException {
+                if ("fail".equals(command)) {
+                    throw new ScriptException(command);
+                }
+                return command;
+            }
+        };
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script;
+
+import be.yildizgames.module.script.dummy.NoInterpreterProvider;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class ScriptWatchdogTest {
+
+    /**
+     * Test script looping until its monitor tells it to stop.
+     */
+    private static final ParsedScript INFINITE_LOOP = new ParsedScript() {
+        @Override
+        public void run() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void run(final ExecutionMonitor monitor) {
+            while (monitor.checkpoint(1)) {
+                Thread.onSpinWait();
+            }
+        }
+    };
+
+    @Test
+    void scriptInBudget() throws Exception {
+        try (ScriptWatchdog watchdog = new ScriptWatchdog()) {
+            ScriptInterpreter interpreter = new NoInterpreterProvider().getInterpreter();
+            watchdog.run(interpreter.runScript(""), ExecutionBudget.of(Duration.ofSeconds(5)));
+            assertEquals("", watchdog.runCommand(interpreter, "azerty", ExecutionBudget.of(Duration.ofSeconds(5))));
+            assertEquals(0, watchdog.getTimeouts());
+            assertFalse(Thread.currentThread().isInterrupted());
+        }
+    }
+
+    @Test
+    void deadlineIsEnforced() {
+        try (ScriptWatchdog watchdog = new ScriptWatchdog()) {
+            long start = System.nanoTime();
+            ScriptBudgetExceededException e = assertThrows(ScriptBudgetExceededException.class,
+                    () -> watchdog.run(INFINITE_LOOP, ExecutionBudget.of(Duration.ofMillis(20))));
+            assertTrue(e.isTimeout());
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+            assertFalse(Thread.currentThread().isInterrupted());
+        }
+    }
+
+    @Test
+    void blockedScriptIsInterrupted() {
+        try (ScriptWatchdog watchdog = new ScriptWatchdog()) {
+            ParsedScript sleeping = () -> {
+                try {
+                    Thread.sleep(60_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            };
+            assertThrows(ScriptBudgetExceededException.class, () -> watchdog.run(sleeping, ExecutionBudget.of(Duration.ofMillis(20))));
+            assertFalse(Thread.currentThread().isInterrupted());
+        }
+    }
+
+    @Test
+    void stepLimitIsEnforced() {
+        try (ScriptWatchdog watchdog = new ScriptWatchdog()) {
+            ScriptBudgetExceededException e = assertThrows(ScriptBudgetExceededException.class,
+                    () -> watchdog.run(INFINITE_LOOP, ExecutionBudget.of(Duration.ofSeconds(30)).withMaxSteps(1000)));
+            assertFalse(e.isTimeout());
+            assertEquals(1, watchdog.getStepLimits());
+        }
+    }
+
+    @Test
+    void manyConcurrentRuns() throws Exception {
+        AtomicInteger stopped = new AtomicInteger();
+        try (ScriptWatchdog watchdog = new ScriptWatchdog();
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 5000; i++) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        watchdog.run(() -> {
+                            try {
+                                Thread.sleep(60_000);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }, ExecutionBudget.of(Duration.ofMillis(50)));
+                    } catch (ScriptBudgetExceededException e) {
+                        stopped.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            assertEquals(5000, stopped.get());
+            assertEquals(5000, watchdog.getTimeouts());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script;
+
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Interpreter for the tests, counting the calls, its behavior is changed by overriding the parse and execute hooks.
+ * By default, scripts do nothing and commands return themselves.
+ *
+ * @author Grégory Van den Borre
+ */
+public class StubInterpreter extends ScriptInterpreter {
+
+    private final AtomicInteger parsed = new AtomicInteger();
+
+    private final AtomicInteger compiled = new AtomicInteger();
+
+    private final AtomicInteger executed = new AtomicInteger();
+
+    private volatile long heap;
+
+    private volatile boolean closed;
+
+    public StubInterpreter() {
+        super();
+    }
+
+    /**
+     * Hook called by runScript.
+     *
+     * @param file Script file.
+     * @return The parsed script.
+     * @throws ScriptException To simulate a parse error.
+     */
+    protected ParsedScript parse(final String file) throws ScriptException {
+        return () -> {
+        };
+    }
+
+    /**
+     * Hook called by runCommand and the compiled commands.
+     *
+     * @param command Command to execute.
+     * @return The command result.
+     * @throws ScriptException To simulate an execution error.
+     */
+    protected Object execute(final String command) throws ScriptException {
+        return command;
+    }
+
+    @Override
+    public final ParsedScript runScript(final String file) throws ScriptException {
+        this.parsed.incrementAndGet();
+        return this.parse(file);
+    }
+
+    @Override
+    public final Object runCommand(final String command) throws ScriptException {
+        this.executed.incrementAndGet();
+        return this.execute(command);
+    }
+
+    @Override
+    public final CompiledCommand compileCommand(final String command) {
+        this.compiled.incrementAndGet();
+        return () -> this.runCommand(command);
+    }
+
+    @Override
+    public final MemoryUsage getMemoryUsage() {
+        return new MemoryUsage(0, this.heap);
+    }
+
+    /**
+     * @param heap Script heap size reported by getMemoryUsage.
+     */
+    public final void setHeap(final long heap) {
+        this.heap = heap;
+    }
+
+    public final long getHeap() {
+        return this.heap;
+    }
+
+    /**
+     * @return The number of runScript calls.
+     */
+    public final int getParsed() {
+        return this.parsed.get();
+    }
+
+    /**
+     * @return The number of compileCommand calls.
+     */
+    public final int getCompiled() {
+        return this.compiled.get();
+    }
+
+    /**
+     * @return The number of executed commands, compiled or not.
+     */
+    public final int getExecuted() {
+        return this.executed.get();
+    }
+
+    @Override
+    public void print(final String toPrint) {
+        // Nothing to print.
+    }
+
+    @Override
+    public void setOutput(final Writer output) {
+        // No output.
+    }
+
+    @Override
+    public final String getFileHeader() {
+        return "";
+    }
+
+    @Override
+    public final String getFileExtension() {
+        return "txt";
+    }
+
+    @Override
+    public final boolean isClosed() {
+        return this.closed;
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.async;
+
+import be.yildizgames.module.script.ScriptException;
+import be.yildizgames.module.script.dummy.NoInterpreterProvider;
+import be.yildizgames.module.script.pool.ScriptInterpreterPool;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class AsyncScriptExecutorTest {
+
+    @Test
+    void runCommand() throws Exception {
+        try (ScriptInterpreterPool pool = new ScriptInterpreterPool(new NoInterpreterProvider(), 2);
+             AsyncScriptExecutor executor = new AsyncScriptExecutor(pool, 10)) {
+            assertEquals("", executor.runCommand("azerty").get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void timeoutInterruptsTheCall() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try (ScriptInterpreterPool pool = new ScriptInterpreterPool(new NoInterpreterProvider(), 1);
+             AsyncScriptExecutor executor = new AsyncScriptExecutor(pool, 10)) {
+            CompletableFuture<Object> future = executor.submit(i -> {
+                try {
+                    Thread.sleep(60_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return null;
+            }, Duration.ofMillis(50));
+            ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof TimeoutException);
+            assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void tooManyPendingCallsAreRejected() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try (ScriptInterpreterPool pool = new ScriptInterpreterPool(new NoInterpreterProvider(), 1);
+             AsyncScriptExecutor executor = new AsyncScriptExecutor(pool, 1)) {
+            CompletableFuture<Object> first = executor.submit(i -> release.await(5, TimeUnit.SECONDS), Duration.ofSeconds(5));
+            CompletableFuture<Object> second = executor.runCommand("azerty");
+            assertTrue(second.isCompletedExceptionally());
+            assertEquals(1, executor.getRejected());
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void errorCompletesTheFuture() throws Exception {
+        try (ScriptInterpreterPool pool = new ScriptInterpreterPool(new NoInterpreterProvider(), 1);
+             AsyncScriptExecutor executor = new AsyncScriptExecutor(pool, 10)) {
+            CompletableFuture<Object> future = executor.submit(i -> {
+                throw new StackOverflowError();
+            });
+            ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof StackOverflowError);
+        }
+    }
+
+    @Test
+    void scriptNotThreadSafeIsRefused() throws Exception {
+        try (ScriptInterpreterPool pool = new ScriptInterpreterPool(new NoInterpreterProvider(), 1);
+             AsyncScriptExecutor executor = new AsyncScriptExecutor(pool, 10)) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> executor.run(() -> {}).get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof ScriptException);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.bulk;
+
+import be.yildizgames.module.script.ArgumentFrame;
+import be.yildizgames.module.script.ParsedScript;
+import be.yildizgames.module.script.ValueType;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class BulkScriptRunnerTest {
+
+    /**
+     * Thread safe script returning its first argument multiplied by its second.
+     */
+    private static final ParsedScript MULTIPLY = new ParsedScript() {
+        @Override
+        public void run() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void run(final ArgumentFrame frame) {
+            frame.returnDouble(frame.getInt(0) * frame.getDouble(1));
+        }
+
+        @Override
+        public boolean isThreadSafe() {
+            return true;
+        }
+    };
+
+    @Test
+    void columnar() {
+        int size = 10_000;
+        int[] ids = new int[size];
+        double[] factors = new double[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = i;
+            factors[i] = 0.5;
+        }
+        double[] sequential = new double[size];
+        double[] parallel = new double[size];
+        ColumnarBatch batch = new ColumnarBatch(size).ints(ids).doubles(factors);
+        BulkScriptRunner.run(MULTIPLY, batch, BatchOutputs.doubles(sequential));
+        BulkScriptRunner.runParallel(MULTIPLY, batch, BatchOutputs.doubles(parallel), ForkJoinPool.commonPool(), 256);
+        for (int i = 0; i < size; i++) {
+            assertEquals(i * 0.5, sequential[i]);
+            assertEquals(i * 0.5, parallel[i]);
+        }
+    }
+
+    @Test
+    void buffer() {
+        int stride = Integer.BYTES + Double.BYTES;
+        ByteBuffer input = ByteBuffer.allocate(stride * 3);
+        for (int i = 0; i < 3; i++) {
+            input.putInt(i * stride, i + 1).putDouble(i * stride + Integer.BYTES, 2);
+        }
+        ByteBuffer output = ByteBuffer.allocate(Double.BYTES * 3);
+        BufferBatch batch = new BufferBatch(input, stride, 3)
+                .field(ValueType.INT, 0)
+                .field(ValueType.DOUBLE, Integer.BYTES);
+        BulkScriptRunner.run(MULTIPLY, batch, BatchOutputs.buffer(output, Double.BYTES, 0));
+        assertEquals(2.0, output.getDouble(0));
+        assertEquals(6.0, output.getDouble(2 * Double.BYTES));
+    }
+
+    @Test
+    void invalidBufferLayout() {
+        BufferBatch batch = new BufferBatch(ByteBuffer.allocate(24), 12, 2);
+        assertThrows(IllegalArgumentException.class, () -> batch.field(ValueType.DOUBLE, Integer.BYTES + 1));
+        assertThrows(IllegalArgumentException.class, () -> batch.field(ValueType.INT, -1));
+        ArgumentFrame frame = new ArgumentFrame(0, 0);
+        frame.returnObject("result");
+        assertThrows(IllegalStateException.class, () -> BatchOutputs.buffer(ByteBuffer.allocate(8), 8, 0).store(0, frame));
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.bundle;
+
+import be.yildizgames.module.script.ScriptException;
+import be.yildizgames.module.script.ScriptInterpreter;
+import be.yildizgames.module.script.ScriptInterpreterProvider;
+import be.yildizgames.module.script.dummy.NoInterpreterProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class ScriptBundleTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writeAndRead() throws Exception {
+        ScriptInterpreterProvider provider = new NoInterpreterProvider();
+        ScriptInterpreter interpreter = provider.getInterpreter();
+        Path file = this.directory.resolve("scripts.ysb");
+        ScriptBundleWriter writer = new ScriptBundleWriter(provider);
+        writer.add("first.txt", interpreter.runScript("first.txt"));
+        writer.add("second.txt", interpreter.runScript("second.txt"));
+        writer.write(file);
+
+        ScriptBundle bundle = ScriptBundle.open(file, provider, interpreter);
+        assertEquals(Set.of("first.txt", "second.txt"), bundle.getNames());
+        assertTrue(bundle.get("first.txt").isPresent());
+        assertFalse(bundle.get("unknown.txt").isPresent());
+        bundle.get("second.txt").orElseThrow().run();
+        bundle.load("first.txt").run();
+    }
+
+    @Test
+    void invalidFile() throws Exception {
+        Path file = this.directory.resolve("scripts.ysb");
+        Files.writeString(file, "not a bundle");
+        ScriptInterpreterProvider provider = new NoInterpreterProvider();
+        assertThrows(ScriptException.class, () -> ScriptBundle.open(file, provider, provider.getInterpreter()));
+    }
+
+    @Test
+    void truncatedFile() throws Exception {
+        Path file = this.directory.resolve("scripts.ysb");
+        Files.write(file, new byte[]{0x59, 0x53, 0x42, 0x31, 0});
+        ScriptInterpreterProvider provider = new NoInterpreterProvider();
+        assertThrows(ScriptException.class, () -> ScriptBundle.open(file, provider, provider.getInterpreter()));
+    }
+
+    @Test
+    void corruptLengths() throws Exception {
+        ScriptInterpreterProvider provider = new NoInterpreterProvider();
+        ScriptInterpreter interpreter = provider.getInterpreter();
+        Path file = this.directory.resolve("scripts.ysb");
+        ScriptBundleWriter writer = new ScriptBundleWriter(provider);
+        writer.add("a", interpreter.runScript("a"));
+        writer.write(file);
+        byte[] valid = Files.readAllBytes(file);
+
+        byte[] negativeName = valid.clone();
+        negativeName[6] = (byte) 0xFF;
+        negativeName[7] = (byte) 0xFF;
+        Files.write(file, negativeName);
+        assertThrows(ScriptException.class, () -> ScriptBundle.open(file, provider, interpreter));
+
+        byte[] negativeEntry = valid.clone();
+        int entryLength = 4 + 2 + 2 + provider.getName().getBytes(StandardCharsets.UTF_8).length + 4 + 2 + 1 + 8;
+        ByteBuffer.wrap(negativeEntry).putInt(entryLength, -1);
+        Files.write(file, negativeEntry);
+        assertThrows(ScriptException.class, () -> ScriptBundle.open(file, provider, interpreter));
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.cache;
+
+import be.yildizgames.module.script.StubInterpreter;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class CachedCommandInterpreterTest {
+
+    @Test
+    void repeatedCommandIsCompiledOnce() throws Exception {
+        StubInterpreter compiling = new StubInterpreter();
+        CachedCommandInterpreter cache = new CachedCommandInterpreter(compiling, 4);
+        assertEquals("a", cache.runCommand("a"));
+        assertEquals("a", cache.runCommand("a"));
+        assertEquals("a", cache.runCommand("a"));
+        assertEquals(1, compiling.getCompiled());
+        assertEquals(3, compiling.getExecuted());
+        assertEquals(2.0 / 3.0, cache.getStatistics().hitRate(), 0.0001);
+    }
+
+    @Test
+    void bypassedCommandIsNeverCached() throws Exception {
+        StubInterpreter compiling = new StubInterpreter();
+        CachedCommandInterpreter cache = new CachedCommandInterpreter(compiling, 4, c -> c.startsWith("def"));
+        cache.runCommand("def x");
+        cache.runCommand("def x");
+        assertEquals(0, compiling.getCompiled());
+        assertEquals(2, cache.getStatistics().bypasses());
+        assertEquals(0, cache.getStatistics().size());
+    }
+
+    @Test
+    void rareCommandDoesNotEvictFrequentOne() throws Exception {
+        StubInterpreter compiling = new StubInterpreter();
+        CachedCommandInterpreter cache = new CachedCommandInterpreter(compiling, 1);
+        for (int i = 0; i < 5; i++) {
+            cache.runCommand("frequent");
+        }
+        for (int i = 0; i < 10; i++) {
+            cache.runCommand("rare" + i);
+        }
+        cache.runCommand("frequent");
+        assertEquals(11, compiling.getCompiled());
+        assertEquals(10, cache.getStatistics().rejections());
+        assertEquals(0, cache.getStatistics().evictions());
+    }
+
+    @Test
+    void emptyCacheIsRefused() {
+        assertThrows(IllegalArgumentException.class, () -> new CachedCommandInterpreter(new StubInterpreter(), 0));
+    }
+}
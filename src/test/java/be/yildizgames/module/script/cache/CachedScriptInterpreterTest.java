@@ -0,0 +1,145 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+package be.yildizgames.module.script.cache;
+
+import be.yildizgames.module.script.ParsedScript;
+import be.yildizgames.module.script.ScriptException;
+import be.yildizgames.module.script.StubInterpreter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class CachedScriptInterpreterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void sameFileIsParsedOnce() throws Exception {
+        Path file = Files.writeString(this.directory.resolve("script.txt"), "content");
+        StubInterpreter stub = new StubInterpreter();
+        CachedScriptInterpreter cache = new CachedScriptInterpreter(stub, 1024);
+        ParsedScript first = cache.runScript(file.toString());
+        ParsedScript second = cache.runScript(file.toString());
+        assertSame(first, second);
+        assertEquals(1, stub.getParsed());
+        assertEquals(1, cache.getStatistics().hits());
+        assertEquals(1, cache.getStatistics().misses());
+    }
+
+    @Test
+    void modifiedFileIsParsedAgain() throws Exception {
+        Path file = Files.writeString(this.directory.resolve("script.txt"), "content");
+        StubInterpreter stub = new StubInterpreter();
+        CachedScriptInterpreter cache = new CachedScriptInterpreter(stub, 1024);
+        cache.runScript(file.toString());
+        Files.writeString(file, "other content");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 5000));
+        cache.runScript(file.toString());
+        assertEquals(2, stub.getParsed());
+    }
+
+    @Test
+    void fileEditedWhileParsedIsNotCached() throws Exception {
+        Path file = Files.writeString(this.directory.resolve("script.txt"), "content");
+        StubInterpreter stub = new StubInterpreter() {
+            @Override
+            protected ParsedScript parse(final String f) {
+                try {
+                    Files.writeString(file, "edited");
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                return () -> {
+                };
+            }
+        };
+        CachedScriptInterpreter cache = new CachedScriptInterpreter(stub, 1024);
+        cache.runScript(file.toString());
+        assertEquals(0, cache.getStatistics().size());
+    }
+
+    @Test
+    void leastRecentlyUsedIsEvicted() throws Exception {
+        Path file1 = Files.writeString(this.directory.resolve("script1.txt"), "12345");
+        Path file2 = Files.writeString(this.directory.resolve("script2.txt"), "67890");
+        StubInterpreter stub = new StubInterpreter();
+        CachedScriptInterpreter cache = new CachedScriptInterpreter(stub, 8);
+        cache.runScript(file1.toString());
+        cache.runScript(file2.toString());
+        cache.runScript(file1.toString());
+        assertEquals(3, stub.getParsed());
+        assertEquals(2, cache.getStatistics().evictions());
+        assertEquals(5, cache.getStatistics().weight());
+    }
+
+    @Test
+    void cachedRunsAreNotSerialized() throws Exception {
+        Path file = Files.writeString(this.directory.resolve("script.txt"), "content");
+        CountDownLatch running = new CountDownLatch(2);
+        AtomicInteger concurrent = new AtomicInteger();
+        StubInterpreter stub = new StubInterpreter() {
+            @Override
+            protected ParsedScript parse(final String f) {
+                return () -> {
+                    running.countDown();
+                    try {
+                        if (running.await(5, TimeUnit.SECONDS)) {
+                            concurrent.incrementAndGet();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                };
+            }
+        };
+        CachedScriptInterpreter cache = new CachedScriptInterpreter(stub, 1024);
+        cache.runScript(file.toString());
+        Thread other = new Thread(() -> {
+            try {
+                cache.runScript(file.toString());
+            } catch (ScriptException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        other.start();
+        cache.runScript(file.toString());
+        other.join();
+        assertEquals(2, concurrent.get());
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.introspection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class ClassDescriptorTest {
+
+    @Test
+    void descriptorIsCached() {
+        assertSame(ClassDescriptor.of(String.class), ClassDescriptor.of(String.class));
+    }
+
+    @Test
+    void findMethodNames() {
+        List<String> names = ClassDescriptor.of(String.class).findMethodNames("toUpper");
+        assertEquals(List.of("toUpperCase"), names);
+        assertTrue(ClassDescriptor.of(String.class).findMethodNames("unknown").isEmpty());
+    }
+
+    @Test
+    void methodHandleIsResolved() throws Throwable {
+        MethodDescriptor length = ClassDescriptor.of(String.class).getMethods().stream()
+                .filter(m -> m.name().equals("length"))
+                .findFirst()
+                .orElseThrow();
+        assertNotNull(length.handle());
+        assertEquals(5, (int) length.handle().invoke("hello"));
+        assertEquals("int length()", length.signature());
+    }
+
+    @Test
+    void fields() {
+        FieldDescriptor max = ClassDescriptor.of(Integer.class).getFields().stream()
+                .filter(f -> f.name().equals("MAX_VALUE"))
+                .findFirst()
+                .orElseThrow();
+        assertTrue(max.isStatic());
+        assertEquals(int.class, max.type());
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.loader;
+
+import be.yildizgames.module.script.ParsedScript;
+import be.yildizgames.module.script.ScriptException;
+import be.yildizgames.module.script.StubInterpreter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class ScriptLoaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void dependenciesAreLoadedFirst() throws Exception {
+        Files.createDirectories(this.directory.resolve("ai"));
+        Files.writeString(this.directory.resolve("base.txt"), "# base\n\ncontent");
+        Files.writeString(this.directory.resolve("ai/common.txt"), "# @depends base\n\ncontent");
+        Files.writeString(this.directory.resolve("ai/unit.txt"), "# @depends ai/common, base\n\ncontent");
+        Files.writeString(this.directory.resolve("ignored.md"), "content");
+        RecordingInterpreter interpreter = new RecordingInterpreter();
+        LoadResult result = new ScriptLoader(interpreter, ForkJoinPool.commonPool()).load(this.directory);
+        assertTrue(result.isSuccess(), result.report());
+        assertEquals(Set.of("base", "ai/common", "ai/unit"), result.scripts().keySet());
+        List<String> order = List.copyOf(interpreter.parsed);
+        assertTrue(order.indexOf(this.directory.resolve("base.txt").toString()) < order.indexOf(this.directory.resolve("ai/common.txt").toString()));
+        assertTrue(order.indexOf(this.directory.resolve("ai/common.txt").toString()) < order.indexOf(this.directory.resolve("ai/unit.txt").toString()));
+    }
+
+    @Test
+    void errorsAreReported() throws Exception {
+        Files.writeString(this.directory.resolve("a.txt"), "# @depends b\n");
+        Files.writeString(this.directory.resolve("b.txt"), "# @depends a\n");
+        Files.writeString(this.directory.resolve("c.txt"), "# @depends unknown\n");
+        Files.writeString(this.directory.resolve("d.txt"), "# @depends c\n");
+        Files.writeString(this.directory.resolve("fail.txt"), "content");
+        Files.writeString(this.directory.resolve("e.txt"), "# @depends fail\n");
+        Files.writeString(this.directory.resolve("ok.txt"), "content");
+        LoadResult result = new ScriptLoader(new RecordingInterpreter(), ForkJoinPool.commonPool()).load(this.directory);
+        assertFalse(result.isSuccess());
+        assertEquals(Set.of("ok"), result.scripts().keySet());
+        assertEquals(List.of(LoadFailure.CYCLE, LoadFailure.CYCLE, LoadFailure.MISSING_DEPENDENCY, LoadFailure.DEPENDENCY_FAILED,
+                LoadFailure.DEPENDENCY_FAILED, LoadFailure.PARSE), result.errors().stream().map(LoadError::failure).toList());
+    }
+
+    /**
+     * Interpreter recording the parsed files, and failing for the files named fail.
+     */
+    private static final class RecordingInterpreter extends StubInterpreter {
+
+        private final Queue<String> parsed = new ConcurrentLinkedQueue<>();
+
+        @Override
+        protected ParsedScript parse(final String file) throws ScriptException {
+            if (file.endsWith("fail.txt")) {
+                throw new ScriptException("Syntax error");
+            }
+            this.parsed.add(file);
+            return super.parse(file);
+        }
+    }
+}
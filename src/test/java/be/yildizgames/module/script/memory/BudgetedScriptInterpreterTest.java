@@ -0,0 +1,134 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.memory;
+
+import be.yildizgames.module.script.MemoryLimitExceededException;
+import be.yildizgames.module.script.ParsedScript;
+import be.yildizgames.module.script.ScriptInterpreter;
+import be.yildizgames.module.script.ScriptMemory;
+import be.yildizgames.module.script.StubInterpreter;
+import be.yildizgames.module.script.dummy.NoInterpreterProvider;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class BudgetedScriptInterpreterTest {
+
+    @Test
+    void softLimitEvictsAndNotifiesOnce() throws Exception {
+        GrowingInterpreter growing = new GrowingInterpreter();
+        AtomicInteger evictions = new AtomicInteger();
+        AtomicInteger notifications = new AtomicInteger();
+        MemoryBudget budget = new MemoryBudget(100, 1000)
+                .addEvictor(evictions::incrementAndGet)
+                .addListener((i, u, l) -> notifications.incrementAndGet());
+        ScriptInterpreter interpreter = new BudgetedScriptInterpreter(growing, budget);
+        interpreter.runCommand("60");
+        assertEquals(0, evictions.get());
+        interpreter.runCommand("60");
+        interpreter.runCommand("60");
+        assertEquals(1, evictions.get());
+        assertEquals(1, notifications.get());
+    }
+
+    @Test
+    void evictionBelowSoftLimitDoesNotNotify() throws Exception {
+        GrowingInterpreter growing = new GrowingInterpreter();
+        AtomicInteger notifications = new AtomicInteger();
+        MemoryBudget budget = new MemoryBudget(100, 1000)
+                .addEvictor(() -> growing.setHeap(0))
+                .addListener((i, u, l) -> notifications.incrementAndGet());
+        ScriptInterpreter interpreter = new BudgetedScriptInterpreter(growing, budget);
+        interpreter.runCommand("150");
+        assertEquals(0, growing.getHeap());
+        assertEquals(0, notifications.get());
+    }
+
+    @Test
+    void hardLimitRefusesCalls() throws Exception {
+        GrowingInterpreter growing = new GrowingInterpreter();
+        ScriptInterpreter interpreter = new BudgetedScriptInterpreter(growing, new MemoryBudget(100, 200));
+        interpreter.runCommand("300");
+        MemoryLimitExceededException e = assertThrows(MemoryLimitExceededException.class, () -> interpreter.runCommand("1"));
+        assertEquals(300, e.getUsage());
+        assertEquals(200, e.getLimit());
+    }
+
+    @Test
+    void moduleTotalIncludesLiveInterpreters() throws Exception {
+        long before = ScriptMemory.getTotalUsage().total();
+        GrowingInterpreter growing = new GrowingInterpreter();
+        new BudgetedScriptInterpreter(growing, new MemoryBudget(1000, 1000)).runCommand("50");
+        assertEquals(before + 50, ScriptMemory.getTotalUsage().total());
+        growing.close();
+        assertEquals(before, ScriptMemory.getTotalUsage().total());
+    }
+
+    @Test
+    void parsedScriptRunsAreChecked() throws Exception {
+        GrowingInterpreter growing = new GrowingInterpreter();
+        AtomicInteger notifications = new AtomicInteger();
+        MemoryBudget budget = new MemoryBudget(100, 200).addListener((i, u, l) -> notifications.incrementAndGet());
+        ParsedScript script = new BudgetedScriptInterpreter(growing, budget).runScript("script.txt");
+        script.run();
+        assertEquals(1, notifications.get());
+        growing.setHeap(300);
+        IllegalStateException e = assertThrows(IllegalStateException.class, script::run);
+        assertTrue(e.getCause() instanceof MemoryLimitExceededException);
+    }
+
+    @Test
+    void providerNotReportingMemoryIsRefused() {
+        assertThrows(UnsupportedOperationException.class, () -> new NoInterpreterProvider().getInterpreter(new MemoryBudget(100, 200)));
+    }
+
+    /**
+     * Interpreter whose heap grows by the number given as command.
+     */
+    private static final class GrowingInterpreter extends StubInterpreter {
+
+        @Override
+        protected Object execute(final String command) {
+            this.setHeap(this.getHeap() + Long.parseLong(command));
+            return this.getHeap();
+        }
+
+        /**
+         * Each run of the parsed script grows the heap by 150.
+         */
+        @Override
+        protected ParsedScript parse(final String file) {
+            return () -> this.setHeap(this.getHeap() + 150);
+        }
+    }
+}
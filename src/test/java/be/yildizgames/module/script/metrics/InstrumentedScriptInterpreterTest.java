@@ -0,0 +1,69 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.metrics;
+
+import be.yildizgames.module.script.BatchMode;
+import be.yildizgames.module.script.CompiledCommand;
+import be.yildizgames.module.script.ScriptException;
+import be.yildizgames.module.script.StubInterpreter;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class InstrumentedScriptInterpreterTest {
+
+    @Test
+    void compiledCommandsAndBatchesAreMeasured() throws ScriptException {
+        InstrumentedScriptInterpreter interpreter = new InstrumentedScriptInterpreter(new StubInterpreter() {
+            @Override
+            protected Object execute(final String command) throws ScriptException {
+                if (command.startsWith("fail")) {
+                    throw new ScriptException("Error");
+                }
+                return command;
+            }
+        });
+        CompiledCommand compiled = interpreter.compileCommand("move");
+        compiled.run();
+        compiled.run();
+        interpreter.runCommands(List.of("move", "fail"), BatchMode.CONTINUE_ON_ERROR);
+        MetricSnapshot move = find(interpreter, "move");
+        assertEquals(3, move.calls());
+        assertEquals(0, move.errors());
+        MetricSnapshot fail = find(interpreter, "fail");
+        assertEquals(1, fail.calls());
+        assertEquals(1, fail.errors());
+    }
+
+    private static MetricSnapshot find(final InstrumentedScriptInterpreter interpreter, final String tag) {
+        return interpreter.snapshot().stream().filter(m -> m.operation() == Operation.RUN_COMMAND && tag.equals(m.tag())).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.output;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class RingBufferOutputTest {
+
+    @Test
+    void outputIsDrainedToTarget() {
+        StringWriter result = new StringWriter();
+        try (RingBufferOutput output = new RingBufferOutput(OutputTarget.of(result), 4, 4, OverflowPolicy.BLOCK, 1)) {
+            output.write("hello world, this line is longer than the ring");
+            output.write('!');
+            output.flush();
+            assertEquals("hello world, this line is longer than the ring!", result.toString());
+            assertEquals(47, output.getQueuedChars());
+            assertEquals(0, output.getDroppedChars());
+        }
+    }
+
+    @Test
+    void concurrentWritersLoseNothingWhenBlocking() throws Exception {
+        StringWriter result = new StringWriter();
+        List<Thread> threads = new ArrayList<>();
+        try (RingBufferOutput output = new RingBufferOutput(OutputTarget.of(result), 8, 16, OverflowPolicy.BLOCK, 1)) {
+            for (int t = 0; t < 4; t++) {
+                threads.add(Thread.ofPlatform().start(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        output.write("x");
+                    }
+                }));
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            output.flush();
+            assertEquals(4000, result.toString().length());
+        }
+    }
+
+    @Test
+    void fullBufferDrops() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        OutputTarget blocked = new OutputTarget() {
+            @Override
+            public void write(final char[] buffer, final int offset, final int length) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+        };
+        try (RingBufferOutput output = new RingBufferOutput(blocked, 2, 1, OverflowPolicy.DROP, 1)) {
+            for (int i = 0; i < 100; i++) {
+                output.write("ab");
+            }
+            assertTrue(output.getDroppedChars() > 0);
+            release.countDown();
+        }
+    }
+
+    @Test
+    void channelTargetKeepsSplitSurrogatesAndReplacesUnmappable() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputTarget utf8 = OutputTarget.of(Channels.newChannel(bytes), StandardCharsets.UTF_8);
+        char[] emoji = "\uD83D\uDE00".toCharArray();
+        utf8.write(emoji, 0, 1);
+        utf8.write(emoji, 1, 1);
+        assertEquals("\uD83D\uDE00", bytes.toString(StandardCharsets.UTF_8));
+        bytes.reset();
+        OutputTarget ascii = OutputTarget.of(Channels.newChannel(bytes), StandardCharsets.US_ASCII);
+        char[] text = "a\u00E9b".toCharArray();
+        ascii.write(text, 0, text.length);
+        assertEquals("a?b", bytes.toString(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void closeAndFlushReachBufferedTarget() throws Exception {
+        StringWriter closedResult = new StringWriter();
+        BufferedWriter closedWriter = new BufferedWriter(closedResult);
+        RingBufferOutput closed = new RingBufferOutput(OutputTarget.of(closedWriter));
+        closed.write("hello");
+        closed.close();
+        assertEquals("hello", closedResult.toString());
+        StringWriter flushedResult = new StringWriter();
+        try (RingBufferOutput flushed = new RingBufferOutput(OutputTarget.of(new BufferedWriter(flushedResult)))) {
+            flushed.write("hello");
+            flushed.flush();
+            assertEquals("hello", flushedResult.toString());
+        }
+    }
+
+    @Test
+    void channelTargetFinishesStatefulCharsets() throws Exception {
+        Charset charset = Charset.forName("ISO-2022-JP");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputTarget target = OutputTarget.of(Channels.newChannel(bytes), charset);
+        char[] text = "\u65E5\u672C".toCharArray();
+        target.write(text, 0, text.length);
+        target.finish();
+        assertArrayEquals("\u65E5\u672C".getBytes(charset), bytes.toByteArray());
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.pool;
+
+import be.yildizgames.module.script.ScriptException;
+import be.yildizgames.module.script.ScriptInterpreter;
+import be.yildizgames.module.script.dummy.NoInterpreterProvider;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class ScriptInterpreterPoolTest {
+
+    @Test
+    void interpretersAreNeverShared() throws Exception {
+        Set<ScriptInterpreter> used = ConcurrentHashMap.newKeySet();
+        AtomicBoolean shared = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (ScriptInterpreterPool pool = new ScriptInterpreterPool(new NoInterpreterProvider(), 3)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        try (ScriptInterpreterPool.Lease lease = pool.checkout(Duration.ofSeconds(10))) {
+                            if (!used.add(lease.getInterpreter())) {
+                                shared.set(true);
+                            }
+                            lease.getInterpreter().runCommand("command");
+                            used.remove(lease.getInterpreter());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            assertFalse(shared.get());
+            PoolStatistics statistics = pool.getStatistics();
+            assertEquals(8000, statistics.borrowed());
+            assertEquals(0, statistics.inUse());
+            assertTrue(statistics.peakInUse() <= 3);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void borrowTimesOutWhenExhausted() throws ScriptException {
+        try (ScriptInterpreterPool pool = new ScriptInterpreterPool(new NoInterpreterProvider(), 1)) {
+            ScriptInterpreter interpreter = pool.borrow(Duration.ZERO);
+            assertThrows(ScriptException.class, () -> pool.borrow(Duration.ofMillis(10)));
+            assertEquals(1, pool.getStatistics().timeouts());
+            pool.release(interpreter);
+        }
+    }
+
+    @Test
+    void closedInterpreterIsReplaced() throws Exception {
+        try (ScriptInterpreterPool pool = new ScriptInterpreterPool(new NoInterpreterProvider(), 1)) {
+            ScriptInterpreter interpreter = pool.borrow(Duration.ZERO);
+            interpreter.close();
+            pool.release(interpreter);
+            ScriptInterpreter replacement = pool.borrow(Duration.ZERO);
+            assertNotSame(interpreter, replacement);
+            assertFalse(replacement.isClosed());
+            assertEquals(1, pool.getStatistics().replaced());
+            pool.release(replacement);
+        }
+    }
+
+    @Test
+    void duplicateReleaseIsRejected() throws ScriptException {
+        try (ScriptInterpreterPool pool = new ScriptInterpreterPool(new NoInterpreterProvider(), 1)) {
+            ScriptInterpreter interpreter = pool.borrow(Duration.ZERO);
+            pool.release(interpreter);
+            assertThrows(IllegalArgumentException.class, () -> pool.release(interpreter));
+            assertEquals(0, pool.getStatistics().inUse());
+        }
+    }
+
+    @Test
+    void unknownReleaseIsRejected() {
+        try (ScriptInterpreterPool pool = new ScriptInterpreterPool(new NoInterpreterProvider(), 1)) {
+            ScriptInterpreter interpreter = new NoInterpreterProvider().getInterpreter();
+            assertThrows(IllegalArgumentException.class, () -> pool.release(interpreter));
+        }
+    }
+
+    @Test
+    void releasedAfterCloseIsClosed() throws ScriptException {
+        ScriptInterpreterPool pool = new ScriptInterpreterPool(new NoInterpreterProvider(), 1);
+        ScriptInterpreter interpreter = pool.borrow(Duration.ZERO);
+        pool.close();
+        pool.release(interpreter);
+        assertTrue(interpreter.isClosed());
+        assertEquals(0, pool.getStatistics().inUse());
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.profile;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class ScriptProfilerTest {
+
+    @Test
+    void collapsedStacks() throws Exception {
+        ScriptProfiler profiler = new ScriptProfiler(64, 1);
+        profiler.enter("main");
+        profiler.enter("update");
+        profiler.sample();
+        profiler.exit("update");
+        profiler.sample();
+        profiler.exit("main");
+        CollapsedStackAggregator aggregator = new CollapsedStackAggregator();
+        profiler.drain(aggregator);
+        assertEquals(Map.of("main", 1L, "main;update", 1L), aggregator.getSampledStacks());
+        assertEquals(2, aggregator.getTracedStacks().size());
+        assertTrue(aggregator.getTracedStacks().containsKey("main;update"));
+        StringWriter writer = new StringWriter();
+        aggregator.writeSampledStacks(writer);
+        assertEquals("main 1\nmain;update 1\n", writer.toString());
+    }
+
+    @Test
+    void sampleInterval() {
+        ScriptProfiler profiler = new ScriptProfiler(64, 3);
+        profiler.setTracing(false);
+        profiler.enter("main");
+        for (int i = 0; i < 9; i++) {
+            profiler.sample();
+        }
+        CollapsedStackAggregator aggregator = new CollapsedStackAggregator();
+        profiler.drain(aggregator);
+        assertEquals(Map.of("main", 3L), aggregator.getSampledStacks());
+        assertTrue(aggregator.getTracedStacks().isEmpty());
+    }
+
+    @Test
+    void disabledRecordsNothing() {
+        ScriptProfiler profiler = new ScriptProfiler(64, 1);
+        profiler.setEnabled(false);
+        profiler.enter("main");
+        profiler.sample();
+        profiler.exit("main");
+        CollapsedStackAggregator aggregator = new CollapsedStackAggregator();
+        profiler.drain(aggregator);
+        assertTrue(aggregator.getSampledStacks().isEmpty());
+        assertTrue(aggregator.getTracedStacks().isEmpty());
+    }
+
+    @Test
+    void overwrittenEventsAreReported() {
+        ScriptProfiler profiler = new ScriptProfiler(4, 0);
+        for (int i = 0; i < 5; i++) {
+            profiler.enter("f");
+            profiler.exit("f");
+        }
+        long[] lost = new long[1];
+        CollapsedStackAggregator aggregator = new CollapsedStackAggregator();
+        profiler.drain(new ProfileEventListener() {
+            @Override
+            public void onEnter(final long thread, final String function, final long nanos) {
+                aggregator.onEnter(thread, function, nanos);
+            }
+
+            @Override
+            public void onExit(final long thread, final String function, final long nanos) {
+                aggregator.onExit(thread, function, nanos);
+            }
+
+            @Override
+            public void onSample(final long thread, final String[] stack, final long nanos) {
+                aggregator.onSample(thread, stack, nanos);
+            }
+
+            @Override
+            public void onLost(final long thread, final long events) {
+                lost[0] += events;
+            }
+        });
+        assertEquals(7, lost[0]);
+        assertEquals(1, aggregator.getTracedStacks().size());
+    }
+
+    @Test
+    void recordedThreadsAreBounded() throws Exception {
+        ScriptProfiler profiler = new ScriptProfiler(64, 0, 1);
+        profiler.enter("main");
+        Thread other = Thread.ofVirtual().start(() -> profiler.enter("other"));
+        other.join();
+        assertEquals(1, profiler.getUntrackedThreads());
+        CollapsedStackAggregator aggregator = new CollapsedStackAggregator();
+        profiler.drain(aggregator);
+        assertTrue(aggregator.getTracedStacks().isEmpty());
+    }
+}
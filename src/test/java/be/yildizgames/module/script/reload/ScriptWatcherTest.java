@@ -0,0 +1,127 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.reload;
+
+import be.yildizgames.module.script.ForwardingScriptInterpreter;
+import be.yildizgames.module.script.ParsedScript;
+import be.yildizgames.module.script.ScriptException;
+import be.yildizgames.module.script.dummy.NoInterpreterProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class ScriptWatcherTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void changedFileIsReloaded() throws Exception {
+        Path file = Files.writeString(this.directory.resolve("script.txt"), "first");
+        CountDownLatch reloaded = new CountDownLatch(1);
+        CountDownLatch failed = new CountDownLatch(1);
+        ReloadListener listener = new ReloadListener() {
+            @Override
+            public void onReloaded(final ScriptHandle handle) {
+                reloaded.countDown();
+            }
+
+            @Override
+            public void onReloadFailed(final ScriptHandle handle, final ScriptException error) {
+                failed.countDown();
+            }
+        };
+        try (ScriptWatcher watcher = new ScriptWatcher(ContentInterpreter::new, this.directory, Duration.ofMillis(50), listener)) {
+            ScriptHandle handle = watcher.register(file);
+            assertEquals(0, handle.getVersion());
+            Files.writeString(file, "second");
+            assertTrue(reloaded.await(10, TimeUnit.SECONDS));
+            assertEquals(1, handle.getVersion());
+            Files.writeString(file, "error");
+            assertTrue(failed.await(10, TimeUnit.SECONDS));
+            assertEquals(1, handle.getVersion());
+            handle.run();
+        }
+    }
+
+    @Test
+    void fileOutsideTheTreeIsRejected() throws Exception {
+        Path watched = Files.createDirectory(this.directory.resolve("watched"));
+        Path file = Files.writeString(this.directory.resolve("script.txt"), "content");
+        try (ScriptWatcher watcher = new ScriptWatcher(ContentInterpreter::new, watched, Duration.ofMillis(50), (h, e) -> {
+        })) {
+            assertThrows(IllegalArgumentException.class, () -> watcher.register(file));
+        }
+    }
+
+    @Test
+    void handlesCannotRunOnceClosed() throws Exception {
+        Path file = Files.writeString(this.directory.resolve("script.txt"), "content");
+        ScriptHandle handle;
+        try (ScriptWatcher watcher = new ScriptWatcher(ContentInterpreter::new, this.directory, Duration.ofMillis(50), (h, e) -> {
+        })) {
+            handle = watcher.register(file);
+            handle.run();
+        }
+        assertThrows(IllegalStateException.class, handle::run);
+    }
+
+    /**
+     * Interpreter failing to parse files containing "error".
+     */
+    private static final class ContentInterpreter extends ForwardingScriptInterpreter {
+
+        private ContentInterpreter() {
+            super(new NoInterpreterProvider().getInterpreter());
+        }
+
+        @Override
+        public ParsedScript runScript(final String file) throws ScriptException {
+            try {
+                if (Files.readString(Path.of(file)).contains("error")) {
+                    throw new ScriptException("Syntax error");
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return super.runScript(file);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.replay;
+
+import be.yildizgames.module.script.ArgumentFrame;
+import be.yildizgames.module.script.ParsedScript;
+import be.yildizgames.module.script.ScriptException;
+import be.yildizgames.module.script.StubInterpreter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class ScriptReplayerTest {
+
+    /**
+     * Position of the first record, after the magic number and the version.
+     */
+    private static final int RECORDS_OFFSET = Integer.BYTES + Short.BYTES;
+
+    @TempDir
+    Path directory;
+
+    private Path record() throws Exception {
+        Path file = this.directory.resolve("replay.log");
+        try (ReplayLogWriter log = new ReplayLogWriter(file)) {
+            RecordingScriptInterpreter recorder = new RecordingScriptInterpreter(new EchoInterpreter(2), log);
+            ParsedScript script = recorder.runScript("double.txt");
+            script.run();
+            ArgumentFrame frame = new ArgumentFrame(1, 1).setInt(0, 21).setObject(0, "x");
+            script.run(frame);
+            assertEquals(42, frame.getIntResult());
+            assertEquals("hello", recorder.runCommand("hello"));
+            assertThrows(ScriptException.class, () -> recorder.runCommand("fail"));
+            log.flush();
+            assertEquals(5, log.getRecords());
+        }
+        return file;
+    }
+
+    @Test
+    void replayIsIdentical() throws Exception {
+        ReplayReport report = new ScriptReplayer(new EchoInterpreter(2)).replay(this.record());
+        assertEquals(5, report.records());
+        assertTrue(report.isIdentical(), report.differences().toString());
+    }
+
+    @Test
+    void differentResultIsReported() throws Exception {
+        ReplayReport report = new ScriptReplayer(new EchoInterpreter(3)).replay(this.record());
+        assertFalse(report.isIdentical());
+        assertEquals(1, report.mismatches());
+    }
+
+    @Test
+    void truncatedRecordIsIgnored() throws Exception {
+        Path file = this.record();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        ReplayReport report = new ScriptReplayer(new EchoInterpreter(2)).replay(file);
+        assertEquals(4, report.records());
+        assertTrue(report.isIdentical());
+    }
+
+    @Test
+    void corruptRecordsAreReported() throws Exception {
+        Path file = this.record();
+        byte[] valid = Files.readAllBytes(file);
+
+        ByteBuffer.wrap(valid).putInt(RECORDS_OFFSET, -1);
+        Files.write(file, valid);
+        ReplayReport negative = new ScriptReplayer(new EchoInterpreter(2)).replay(file);
+        assertEquals(0, negative.records());
+        assertEquals(1, negative.mismatches());
+
+        ByteBuffer.wrap(valid).putInt(RECORDS_OFFSET, 1);
+        Files.write(file, valid);
+        assertFalse(new ScriptReplayer(new EchoInterpreter(2)).replay(file).isIdentical());
+    }
+
+    /**
+     * Interpreter echoing the commands, failing the command "fail", its scripts multiply their int argument.
+     */
+    private static final class EchoInterpreter extends StubInterpreter {
+
+        private final int factor;
+
+        private EchoInterpreter(final int factor) {
+            super();
+            this.factor = factor;
+        }
+
+        @Override
+        protected ParsedScript parse(final String file) {
+            return new ParsedScript() {
+                @Override
+                public void run() {
+                    // Nothing to run.
+                }
+
+                @Override
+                public void run(final ArgumentFrame frame) {
+                    frame.returnInt(frame.getInt(0) * EchoInterpreter.this.factor);
+                }
+            };
+        }
+
+        @Override
+        protected Object execute(final String command) throws ScriptException {
+            if ("fail".equals(command)) {
+                throw new ScriptException("failed");
+            }
+            return command;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ * Copyright (c) 2019 Grégory Van den Borre
+ *
+ * More infos available: https://engine.yildiz-games.be
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE  SOFTWARE.
+ */
+
+package be.yildizgames.module.script.schedule;
+
+import be.yildizgames.module.script.async.AsyncScriptExecutor;
+import be.yildizgames.module.script.dummy.NoInterpreterProvider;
+import be.yildizgames.module.script.pool.ScriptInterpreterPool;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class ScriptSchedulerTest {
+
+    private static ScriptScheduler scheduler() {
+        return new ScriptScheduler(new NoInterpreterProvider().getInterpreter(), Duration.ofMillis(10));
+    }
+
+    private static void tick(final ScriptScheduler scheduler, final long count) {
+        for (long i = 0; i < count; i++) {
+            scheduler.tick();
+        }
+    }
+
+    @Test
+    void onceRunsAtDeadline() {
+        ScriptScheduler scheduler = scheduler();
+        AtomicInteger runs = new AtomicInteger();
+        scheduler.schedule(runs::incrementAndGet, ScheduleMode.ONCE, 5, 0);
+        tick(scheduler, 4);
+        assertEquals(0, runs.get());
+        tick(scheduler, 1);
+        assertEquals(1, runs.get());
+        tick(scheduler, 100);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void distantDeadlineIsExact() {
+        ScriptScheduler scheduler = scheduler();
+        AtomicInteger runs = new AtomicInteger();
+        for (long delay : new long[]{64, 4095, 4096, 300_000}) {
+            scheduler.schedule(runs::incrementAndGet, ScheduleMode.ONCE, delay, 0);
+        }
+        int expected = 0;
+        for (long delay : new long[]{64, 4095, 4096, 300_000}) {
+            tick(scheduler, delay - 1 - scheduler.getCurrentTick());
+            assertEquals(expected, runs.get());
+            scheduler.tick();
+            assertEquals(++expected, runs.get());
+        }
+    }
+
+    @Test
+    void fixedRateAndFixedDelay() {
+        ScriptScheduler scheduler = scheduler();
+        AtomicInteger rate = new AtomicInteger();
+        AtomicInteger delay = new AtomicInteger();
+        scheduler.schedule(rate::incrementAndGet, ScheduleMode.FIXED_RATE, 3, 3);
+        scheduler.schedule(delay::incrementAndGet, ScheduleMode.FIXED_DELAY, 1, 2);
+        tick(scheduler, 30);
+        assertEquals(10, rate.get());
+        assertEquals(15, delay.get());
+        assertEquals(25, scheduler.getStatistics().runs());
+    }
+
+    @Test
+    void cancelledScriptDoesNotRun() {
+        ScriptScheduler scheduler = scheduler();
+        AtomicInteger runs = new AtomicInteger();
+        ScheduledScript script = scheduler.schedule(runs::incrementAndGet, ScheduleMode.FIXED_RATE, 1, 1);
+        tick(scheduler, 3);
+        assertTrue(script.cancel());
+        tick(scheduler, 3);
+        assertEquals(3, runs.get());
+        assertEquals(0, scheduler.getStatistics().scheduled());
+    }
+
+    @Test
+    void drivenByThread() throws InterruptedException {
+        ScriptScheduler scheduler = new ScriptScheduler(new NoInterpreterProvider().getInterpreter(), Duration.ofMillis(1));
+        AtomicInteger runs = new AtomicInteger();
+        scheduler.schedule(runs::incrementAndGet, ScheduleMode.ONCE, Duration.ofMillis(5), Duration.ZERO);
+        scheduler.start();
+        long end = System.currentTimeMillis() + 5000;
+        while (runs.get() == 0 && System.currentTimeMillis() < end) {
+            Thread.sleep(5);
+        }
+        scheduler.close();
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void scriptClosingTheStartedScheduler() throws InterruptedException {
+        ScriptScheduler scheduler = new ScriptScheduler(new NoInterpreterProvider().getInterpreter(), Duration.ofMillis(1));
+        CountDownLatch closed = new CountDownLatch(1);
+        scheduler.schedule(() -> {
+            scheduler.close();
+            closed.countDown();
+        }, ScheduleMode.ONCE, Duration.ofMillis(5), Duration.ZERO);
+        scheduler.start();
+        assertTrue(closed.await(5, TimeUnit.SECONDS));
+        scheduler.close();
+    }
+
+    @Test
+    void lagIsMeasuredAgainstTheTickSchedule() throws InterruptedException {
+        ScriptScheduler scheduler = scheduler();
+        scheduler.schedule(() -> {}, ScheduleMode.ONCE, 2, 0);
+        scheduler.tick();
+        Thread.sleep(50);
+        scheduler.tick();
+        assertTrue(scheduler.getStatistics().maxLagNanos() >= TimeUnit.MILLISECONDS.toNanos(30));
+    }
+
+    @Test
+    void asyncSchedulerRefusesScriptNotThreadSafe() {
+        try (ScriptInterpreterPool pool = new ScriptInterpreterPool(new NoInterpreterProvider(), 1);
+             AsyncScriptExecutor executor = new AsyncScriptExecutor(pool, 10);
+             ScriptScheduler scheduler = new ScriptScheduler(executor, Duration.ofMillis(10))) {
+            assertThrows(IllegalArgumentException.class, () -> scheduler.schedule(() -> {}, ScheduleMode.ONCE, 1, 0));
+        }
+    }
+}